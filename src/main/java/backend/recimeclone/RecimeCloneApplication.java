@@ -3,8 +3,10 @@ package backend.recimeclone;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.data.mongodb.config.EnableMongoAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @EnableMongoAuditing
+@EnableScheduling
 @SpringBootApplication
 public class RecimeCloneApplication {
 
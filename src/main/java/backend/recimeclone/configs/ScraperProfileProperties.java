@@ -0,0 +1,34 @@
+package backend.recimeclone.configs;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Site-specific CSS selectors for the recipe scraper, under recipes.scraper.profiles.{name}.
+ * A selector left unset is not extracted by that profile.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "recipes.scraper")
+public class ScraperProfileProperties {
+
+    private Map<String, Profile> profiles = new LinkedHashMap<>();
+
+    @Data
+    public static class Profile {
+        private List<String> hosts = new ArrayList<>(); // Also matches their subdomains
+        private String title;
+        private String description;
+        private String ingredients;
+        private String instructions;
+        private String cookTime;
+        private String prepTime;
+        private String servings;
+    }
+}
@@ -1,18 +1,67 @@
 package backend.recimeclone.controllers;
 
+import backend.recimeclone.dtos.AuthorDto;
+import backend.recimeclone.dtos.CursorPageDto;
+import backend.recimeclone.dtos.PantryMatchDto;
+import backend.recimeclone.dtos.PantryRequestDto;
+import backend.recimeclone.dtos.RecipeBatchUpdateDto;
+import backend.recimeclone.dtos.RecipeCursor;
+import backend.recimeclone.dtos.RecipeFacetsDto;
+import backend.recimeclone.dtos.RecipeImportResultDto;
+import backend.recimeclone.dtos.RatingRequestDto;
+import backend.recimeclone.dtos.RecipePatchDto;
 import backend.recimeclone.dtos.RecipeRequestDto; // Import the new DTO
+import backend.recimeclone.dtos.RecipeRatingDto;
+import backend.recimeclone.dtos.RecipeSummaryDto;
+import backend.recimeclone.dtos.RecipeSyncDto;
+import backend.recimeclone.dtos.RecipeVersionDto;
+import backend.recimeclone.dtos.RecipeWithAuthorDto;
+import backend.recimeclone.dtos.SuggestionDto;
 import backend.recimeclone.models.Recipe;
 import backend.recimeclone.repos.RecipeRepository;
+import backend.recimeclone.service.RecipeBatchService;
+import backend.recimeclone.service.RecipeBrowseService;
+import backend.recimeclone.service.RecipeCacheService;
+import backend.recimeclone.service.RecipeChangedEvent;
+import backend.recimeclone.service.RecipeEngagementService;
+import backend.recimeclone.service.RecipeExportService;
+import backend.recimeclone.service.RecipeFacetService;
+import backend.recimeclone.service.RecipeImportService;
+import backend.recimeclone.service.RecipeIngredientParser;
+import backend.recimeclone.service.RecipePantryService;
+import backend.recimeclone.service.RecipeRatingService;
+import backend.recimeclone.service.RecipeSearchService;
+import backend.recimeclone.service.RecipeSuggestService;
+import backend.recimeclone.service.RecipeSyncService;
+import backend.recimeclone.service.RecipeWriteService;
+import backend.recimeclone.service.UserService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.security.core.context.SecurityContextHolder; // For getting authenticated user ID
 
+import java.io.InputStream;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional; // For findById
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -24,22 +73,110 @@ public class RecipeController {
 
     private static final Logger logger = LoggerFactory.getLogger(RecipeController.class);
 
+    private static final String VIEW_FULL = "full";
+    private static final String VIEW_SUMMARY = "summary";
+    private static final List<String> SUMMARY_FIELDS = List.of("id", "userId", "title", "imageUrl", "servings",
+            "prepTime", "cookTime", "rating", "ratingCount", "ratingAverage", "tags", "categories", "updateDate");
+
     private final RecipeRepository recipeRepository;
+    private final RecipeExportService recipeExportService;
+    private final RecipeSearchService recipeSearchService;
+    private final RecipeFacetService recipeFacetService;
+    private final RecipeCacheService recipeCacheService;
+    private final RecipeBatchService recipeBatchService;
+    private final RecipeWriteService recipeWriteService;
+    private final RecipePantryService recipePantryService;
+    private final RecipeSuggestService recipeSuggestService;
+    private final RecipeBrowseService recipeBrowseService;
+    private final RecipeRatingService recipeRatingService;
+    private final RecipeEngagementService recipeEngagementService;
+    private final RecipeSyncService recipeSyncService;
+    private final UserService userService;
+    private final RecipeImportService recipeImportService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${recipes.page.default-size:20}")
+    private int defaultPageSize;
+
+    @Value("${recipes.page.max-size:100}")
+    private int maxPageSize;
+
+    @Value("${recipes.search.max-results:100}")
+    private int maxSearchResults;
+
+    @Value("${recipes.facets.search-scope:1000}")
+    private int facetSearchScope;
+
+    @Value("${recipes.facets.max-limit:100}")
+    private int maxFacetLimit;
+
+    @Value("${recipes.http-cache.max-age-seconds:0}")
+    private long recipeCacheMaxAge;
+
+    @Value("${recipes.batch.max-size:500}")
+    private int maxBatchSize;
+
+    @Value("${recipes.pantry.max-results:100}")
+    private int maxPantryResults;
+
+    @Value("${recipes.lookup.max-size:300}")
+    private int maxLookupSize;
 
-    public RecipeController(RecipeRepository recipeRepository) {
+    public RecipeController(RecipeRepository recipeRepository,
+                            RecipeExportService recipeExportService,
+                            RecipeSearchService recipeSearchService,
+                            RecipeFacetService recipeFacetService,
+                            RecipeCacheService recipeCacheService,
+                            RecipeBatchService recipeBatchService,
+                            RecipeWriteService recipeWriteService,
+                            RecipePantryService recipePantryService,
+                            RecipeSuggestService recipeSuggestService,
+                            RecipeBrowseService recipeBrowseService,
+                            RecipeRatingService recipeRatingService,
+                            RecipeEngagementService recipeEngagementService,
+                            RecipeSyncService recipeSyncService,
+                            UserService userService,
+                            RecipeImportService recipeImportService,
+                            ApplicationEventPublisher eventPublisher) {
         this.recipeRepository = recipeRepository;
+        this.recipeExportService = recipeExportService;
+        this.recipeSearchService = recipeSearchService;
+        this.recipeFacetService = recipeFacetService;
+        this.recipeCacheService = recipeCacheService;
+        this.recipeBatchService = recipeBatchService;
+        this.recipeWriteService = recipeWriteService;
+        this.recipePantryService = recipePantryService;
+        this.recipeSuggestService = recipeSuggestService;
+        this.recipeBrowseService = recipeBrowseService;
+        this.recipeRatingService = recipeRatingService;
+        this.recipeEngagementService = recipeEngagementService;
+        this.recipeSyncService = recipeSyncService;
+        this.userService = userService;
+        this.recipeImportService = recipeImportService;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
-     * Retrieves all recipes from the database. If the database is empty,
-     * it creates and saves a fake recipe for initial testing purposes.
-     * @return A ResponseEntity containing a list of Recipe objects and HTTP status 200 OK.
+     * Retrieves one page of recipes, newest first, using keyset pagination on (updateDate, id).
+     * If the database is empty, it creates and saves a fake recipe for initial testing purposes.
+     * @param cursor The nextCursor of the previous page; omit it to get the first page.
+     * @param size The page size, capped at recipes.page.max-size.
+     * @param view "summary" to return only the fields list screens need; full recipes otherwise.
+     * @return A ResponseEntity containing the page and HTTP status 200 OK, or 400 Bad Request for an invalid cursor.
      */
     @GetMapping
-    public ResponseEntity<List<Recipe>> getAllRecipes(){
-        List<Recipe> recipes = recipeRepository.findAll();
+    public ResponseEntity<?> getAllRecipes(@RequestParam(required = false) String cursor,
+                                           @RequestParam(required = false) Integer size,
+                                           @RequestParam(defaultValue = VIEW_FULL) String view) {
+        CursorPageDto<?> page;
+        try {
+            page = findPage(null, cursor, size, view);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejected recipe page request with invalid cursor: {}", cursor);
+            return ResponseEntity.badRequest().body("Invalid cursor");
+        }
 
-        if (recipes.isEmpty()) {
+        if (cursor == null && page.items().isEmpty()) {
             logger.info("Database is empty. Creating and saving a dummy recipe for initial testing.");
             Recipe dummyRecipe = new Recipe();
             dummyRecipe.setUserId("initial_dummy_user"); // Fake user ID for this initial recipe
@@ -59,11 +196,237 @@ public class RecipeController {
             dummyRecipe.setRating(4);
 
             recipeRepository.save(dummyRecipe);
-            recipes = Collections.singletonList(dummyRecipe);
+            eventPublisher.publishEvent(RecipeChangedEvent.created(dummyRecipe));
+            page = new CursorPageDto<>(Collections.singletonList(
+                    isSummary(view) ? RecipeSummaryDto.of(dummyRecipe) : dummyRecipe), null);
             logger.info("Dummy recipe saved and returned.");
         }
 
-        return new ResponseEntity<>(recipes, HttpStatus.OK);
+        return new ResponseEntity<>(page, HttpStatus.OK);
+    }
+
+    /**
+     * Retrieves one page of the authenticated user's own recipes, newest first.
+     * Paginated the same way as {@link #getAllRecipes}, but served from the owner-scoped index.
+     * @param cursor The nextCursor of the previous page; omit it to get the first page.
+     * @param size The page size, capped at recipes.page.max-size.
+     * @param view "summary" to return only the fields list screens need; full recipes otherwise.
+     * @return A ResponseEntity containing the page and HTTP status 200 OK, or 400 Bad Request for an invalid cursor.
+     */
+    @GetMapping("/mine")
+    public ResponseEntity<?> getMyRecipes(@RequestParam(required = false) String cursor,
+                                          @RequestParam(required = false) Integer size,
+                                          @RequestParam(defaultValue = VIEW_FULL) String view) {
+        String currentUserId = SecurityContextHolder.getContext().getAuthentication().getName();
+        try {
+            return ResponseEntity.ok(findPage(currentUserId, cursor, size, view));
+        } catch (IllegalArgumentException e) {
+            logger.warn("User {} sent an invalid cursor: {}", currentUserId, cursor);
+            return ResponseEntity.badRequest().body("Invalid cursor");
+        }
+    }
+
+    /**
+     * Delta sync: returns the recipes created, updated or deleted since the client's last sync, oldest change first.
+     * Clients keep the returned mark and send it back, so after the first sync only changes cross the network.
+     * @param since The mark returned by the previous sync; omit it for a first, full sync.
+     * @param mine True to sync only the authenticated user's own recipes.
+     * @param size The page size, capped at recipes.page.max-size.
+     * @param view "summary" to return only the fields list screens need; full recipes otherwise.
+     * @return A ResponseEntity containing the changes, deleted ids and the new mark with HTTP status 200 OK, or 400 Bad Request for an invalid mark.
+     */
+    @GetMapping("/sync")
+    public ResponseEntity<?> syncRecipes(@RequestParam(required = false) String since,
+                                         @RequestParam(defaultValue = "false") boolean mine,
+                                         @RequestParam(required = false) Integer size,
+                                         @RequestParam(defaultValue = VIEW_FULL) String view) {
+        String userId = mine ? SecurityContextHolder.getContext().getAuthentication().getName() : null;
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+        RecipeSyncDto<?> changes;
+        try {
+            changes = isSummary(view)
+                    ? recipeSyncService.changesSince(userId, since, pageSize, SUMMARY_FIELDS, RecipeSummaryDto::of)
+                    : recipeSyncService.changesSince(userId, since, pageSize, null, Function.identity());
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejected sync request with invalid mark: {}", since);
+            return ResponseEntity.badRequest().body("Invalid since");
+        }
+        if (changes.resetRequired()) {
+            logger.info("Sync mark {} is older than the tombstone retention; client must resync", since);
+        }
+        return ResponseEntity.ok(changes);
+    }
+
+    /**
+     * Retrieves one page of recipes that contain every given ingredient, newest first.
+     * Names are normalized like parsed ingredients ("Chicken Breasts" matches "500g chicken breast"),
+     * and a single word also matches multi-word names ("chicken" matches "chicken breast").
+     * @param ingredient One or more ingredient names.
+     * @param cursor The nextCursor of the previous page; omit it to get the first page.
+     * @param size The page size, capped at recipes.page.max-size.
+     * @param view "summary" to return only the fields list screens need; full recipes otherwise.
+     * @return A ResponseEntity containing the page and HTTP status 200 OK, or 400 Bad Request for an invalid cursor or no ingredient.
+     */
+    @GetMapping("/with-ingredients")
+    public ResponseEntity<?> getRecipesWithIngredients(@RequestParam List<String> ingredient,
+                                                       @RequestParam(required = false) String cursor,
+                                                       @RequestParam(required = false) Integer size,
+                                                       @RequestParam(defaultValue = VIEW_FULL) String view) {
+        Set<String> names = new LinkedHashSet<>();
+        for (String raw : ingredient) {
+            String name = RecipeIngredientParser.normalizeName(raw);
+            if (name != null) {
+                names.add(name);
+            }
+        }
+        if (names.isEmpty()) {
+            return ResponseEntity.badRequest().body("At least one ingredient is required");
+        }
+        try {
+            return ResponseEntity.ok(isSummary(view)
+                    ? findPage(cursor, size, RecipeSummaryDto.class, RecipeCursor::after, ingredientPages(names, RecipeSummaryDto.class))
+                    : findPage(cursor, size, Recipe.class, RecipeCursor::after, ingredientPages(names, Recipe.class)));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejected ingredient filter request with invalid cursor: {}", cursor);
+            return ResponseEntity.badRequest().body("Invalid cursor");
+        }
+    }
+
+    /**
+     * Retrieves one page of recipes filtered by total time and ingredient count, in the requested order.
+     * Filter and sort are answered from an index alone; the page's recipes are then loaded with one $in query.
+     * @param sort "rating" (highest community average first), "totalTime" (quickest first), "title" (A-Z) or "trending" (most viewed and saved lately first).
+     * @param minTotalTime Optional lower bound on prepTime + cookTime, in minutes.
+     * @param maxTotalTime Optional upper bound on prepTime + cookTime, in minutes.
+     * @param maxIngredients Optional upper bound on the number of ingredients.
+     * @param cursor The nextCursor of the previous page; omit it to get the first page.
+     * @param size The page size, capped at recipes.page.max-size.
+     * @param view "summary" to return only the fields list screens need; full recipes otherwise.
+     * @return A ResponseEntity containing the page and HTTP status 200 OK, or 400 Bad Request for an unknown sort or invalid cursor.
+     */
+    @GetMapping("/browse")
+    public ResponseEntity<?> browseRecipes(@RequestParam(defaultValue = "rating") String sort,
+                                           @RequestParam(required = false) Integer minTotalTime,
+                                           @RequestParam(required = false) Integer maxTotalTime,
+                                           @RequestParam(required = false) Integer maxIngredients,
+                                           @RequestParam(required = false) String cursor,
+                                           @RequestParam(required = false) Integer size,
+                                           @RequestParam(defaultValue = VIEW_FULL) String view) {
+        RecipeBrowseService.BrowseSort browseSort;
+        try {
+            browseSort = RecipeBrowseService.BrowseSort.of(sort);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Unknown sort: " + sort);
+        }
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+        CursorPageDto<String> page;
+        try {
+            page = recipeBrowseService.browse(browseSort,
+                    new RecipeBrowseService.Filter(minTotalTime, maxTotalTime, maxIngredients), cursor, pageSize);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejected browse request with invalid cursor: {}", cursor);
+            return ResponseEntity.badRequest().body("Invalid cursor");
+        }
+        List<?> items = isSummary(view)
+                ? findAllInOrder(page.items(), RecipeSummaryDto.class, RecipeSummaryDto::id)
+                : findAllInOrder(page.items(), Recipe.class, Recipe::getId);
+        return ResponseEntity.ok(new CursorPageDto<>(items, page.nextCursor()));
+    }
+
+    /**
+     * Exports recipes as newline-delimited JSON, streamed from a database cursor.
+     * @param userId Optional owner filter.
+     * @param since Optional lower bound (inclusive) on updateDate, ISO-8601 local date-time.
+     * @return A streaming response body with content type application/x-ndjson.
+     */
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportRecipes(
+            @RequestParam(required = false) String userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since) {
+        StreamingResponseBody body = out -> {
+            long exported = recipeExportService.exportNdjson(userId, since, out);
+            logger.info("Exported {} recipes (userId: {}, since: {})", exported, userId, since);
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
+    /**
+     * Full-text search over recipe titles, descriptions, ingredients and tags, ranked by relevance.
+     * @param q The search text.
+     * @param limit Maximum number of results, capped at recipes.search.max-results.
+     * @param view "summary" to return only the fields list screens need; full recipes otherwise.
+     * @return A ResponseEntity containing the matching recipes, best match first.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<?>> searchRecipes(@RequestParam String q,
+                                                 @RequestParam(defaultValue = "20") int limit,
+                                                 @RequestParam(defaultValue = VIEW_FULL) String view) {
+        List<String> ids = recipeSearchService.search(q, Math.max(1, Math.min(limit, maxSearchResults)));
+        if (isSummary(view)) {
+            return ResponseEntity.ok(findAllInOrder(ids, RecipeSummaryDto.class, RecipeSummaryDto::id));
+        }
+        return ResponseEntity.ok(findAllInOrder(ids, Recipe.class, Recipe::getId));
+    }
+
+    /**
+     * Typeahead completions from recipe titles, tags and ingredient names, most popular first.
+     * Matches the start of the text or of any word in it, so "chick" suggests "Spicy Chicken Stir-fry".
+     * @param q What the user has typed so far.
+     * @param limit Maximum number of completions, capped at recipes.suggest.max-results.
+     * @return A ResponseEntity containing the completions.
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SuggestionDto>> suggest(@RequestParam String q,
+                                                       @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(recipeSuggestService.suggest(q, Math.max(1, limit)));
+    }
+
+    /**
+     * Returns tag and category counts, most frequent first.
+     * @param userId Optional: only count this user's recipes.
+     * @param q Optional: only count the top recipes matching this search text.
+     * @param limit Maximum number of values per facet, capped at recipes.facets.max-limit.
+     * @return A ResponseEntity containing the tag and category counts.
+     */
+    @GetMapping("/facets")
+    public ResponseEntity<RecipeFacetsDto> getFacets(@RequestParam(required = false) String userId,
+                                                     @RequestParam(required = false) String q,
+                                                     @RequestParam(defaultValue = "20") int limit) {
+        int facetLimit = Math.max(1, Math.min(limit, maxFacetLimit));
+        if (q != null && !q.isBlank()) {
+            List<String> ids = recipeSearchService.search(q, facetSearchScope);
+            return ResponseEntity.ok(recipeFacetService.facetsFor(ids, facetLimit));
+        }
+        return ResponseEntity.ok(recipeFacetService.facets(userId, facetLimit));
+    }
+
+    /**
+     * "What can I cook": ranks recipes by how much of their ingredient list the given pantry covers.
+     * Staples (salt, water, pepper by default) are assumed to be at hand.
+     * @param pantryDto The ingredients the user has, and optionally the most ingredients a recipe may be missing.
+     * @param limit Maximum number of results, capped at recipes.pantry.max-results.
+     * @return A ResponseEntity containing the best covered recipes first, each with its coverage and missing ingredients.
+     */
+    @PostMapping("/pantry")
+    public ResponseEntity<List<PantryMatchDto>> matchPantry(@Valid @RequestBody PantryRequestDto pantryDto,
+                                                            @RequestParam(defaultValue = "20") int limit) {
+        List<RecipePantryService.Match> matches = recipePantryService.match(
+                pantryDto.ingredients(), pantryDto.maxMissing(), Math.max(1, Math.min(limit, maxPantryResults)));
+        Map<String, RecipeSummaryDto> summaries = new HashMap<>();
+        List<String> ids = matches.stream().map(RecipePantryService.Match::id).toList();
+        for (RecipeSummaryDto summary : recipeRepository.findByIdInAndDeletionDateIsNull(ids, RecipeSummaryDto.class)) {
+            summaries.put(summary.id(), summary);
+        }
+        List<PantryMatchDto> result = new ArrayList<>(matches.size());
+        for (RecipePantryService.Match match : matches) {
+            RecipeSummaryDto summary = summaries.get(match.id());
+            if (summary != null) {
+                result.add(new PantryMatchDto(summary, match.matched(), match.total(), match.coverage(), match.missing()));
+            }
+        }
+        return ResponseEntity.ok(result);
     }
 
     /**
@@ -79,38 +442,122 @@ public class RecipeController {
         // Convert DTO to Recipe model
         Recipe newRecipe = new Recipe();
         newRecipe.setUserId(currentUserId); // Set userId from the authenticated user
-        newRecipe.setTitle(requestDto.title());
-        newRecipe.setDescription(requestDto.description());
-        newRecipe.setServings(requestDto.servings());
-        newRecipe.setImageUrl(requestDto.imageUrl());
-        newRecipe.setIngredients(requestDto.ingredients());
-        newRecipe.setMethods(requestDto.methods());
-        newRecipe.setPrepTime(requestDto.prepTime());
-        newRecipe.setCookTime(requestDto.cookTime());
-        newRecipe.setTags(requestDto.tags());
-        newRecipe.setCategories(requestDto.categories());
-        newRecipe.setNotes(requestDto.notes());
-        newRecipe.setRating(requestDto.rating()); // Rating might be null if not provided in DTO
+        requestDto.applyTo(newRecipe);
 
         newRecipe.setCreationDate(LocalDateTime.now()); // Set the creation timestamp
         newRecipe.setUpdateDate(LocalDateTime.now());   // Set initial update timestamp
 
         Recipe savedRecipe = recipeRepository.save(newRecipe);
+        eventPublisher.publishEvent(RecipeChangedEvent.created(savedRecipe));
         logger.info("New recipe created with ID: {} by user: {}", savedRecipe.getId(), currentUserId);
         return new ResponseEntity<>(savedRecipe, HttpStatus.CREATED);
     }
 
     /**
-     * Retrieves a single recipe by its ID.
+     * Creates many recipes in one unordered bulk write. Each item is validated on its own.
+     * @param requests Up to recipes.batch.max-size recipes.
+     * @return A ResponseEntity containing one result per item, in request order, or 400 Bad Request if the batch is too large.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<?> createRecipes(@RequestBody List<RecipeRequestDto> requests) {
+        if (requests.size() > maxBatchSize) {
+            return ResponseEntity.badRequest().body("A batch can contain at most " + maxBatchSize + " recipes");
+        }
+        String currentUserId = SecurityContextHolder.getContext().getAuthentication().getName();
+        return ResponseEntity.ok(recipeBatchService.createAll(currentUserId, requests));
+    }
+
+    /**
+     * Imports recipes from a streamed body: NDJSON (such as the export), a JSON array, or schema.org JSON-LD.
+     * Records are validated like create requests and inserted in chunks while the body is still being read.
+     * @param body The request body, read as a stream; it is never held in memory as a whole.
+     * @return A ResponseEntity containing the import counts and the first rejected records, with HTTP status 200 OK.
+     */
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "application/ld+json", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<RecipeImportResultDto> importRecipes(InputStream body) {
+        String currentUserId = SecurityContextHolder.getContext().getAuthentication().getName();
+        return ResponseEntity.ok(recipeImportService.importRecipes(currentUserId, body));
+    }
+
+    /**
+     * Replaces many recipes in one unordered bulk write. Ownership of all of them is checked with a single query.
+     * @param requests Up to recipes.batch.max-size (id, recipe) pairs.
+     * @return A ResponseEntity containing one result per item, in request order, or 400 Bad Request if the batch is too large.
+     */
+    @PutMapping("/batch")
+    public ResponseEntity<?> updateRecipes(@RequestBody List<RecipeBatchUpdateDto> requests) {
+        if (requests.size() > maxBatchSize) {
+            return ResponseEntity.badRequest().body("A batch can contain at most " + maxBatchSize + " recipes");
+        }
+        String currentUserId = SecurityContextHolder.getContext().getAuthentication().getName();
+        return ResponseEntity.ok(recipeBatchService.updateAll(currentUserId, requests));
+    }
+
+    /**
+     * Deletes many recipes in one unordered bulk write. Ownership of all of them is checked with a single query.
+     * @param ids Up to recipes.batch.max-size recipe ids.
+     * @return A ResponseEntity containing one result per item, in request order, or 400 Bad Request if the batch is too large.
+     */
+    @DeleteMapping("/batch")
+    public ResponseEntity<?> deleteRecipes(@RequestBody List<String> ids) {
+        if (ids.size() > maxBatchSize) {
+            return ResponseEntity.badRequest().body("A batch can contain at most " + maxBatchSize + " recipes");
+        }
+        String currentUserId = SecurityContextHolder.getContext().getAuthentication().getName();
+        return ResponseEntity.ok(recipeBatchService.deleteAll(currentUserId, ids));
+    }
+
+    /**
+     * Retrieves many recipes and their authors in one request: one $in query for the recipes and
+     * one query for their distinct authors, reading only the authors' public fields.
+     * @param ids Up to recipes.lookup.max-size recipe ids.
+     * @param view "summary" to return only the fields list screens need; full recipes otherwise.
+     * @return A ResponseEntity containing one entry per requested id, in request order (recipe null if not found),
+     *         or 400 Bad Request if too many ids were requested.
+     */
+    @PostMapping("/lookup")
+    public ResponseEntity<?> lookupRecipes(@RequestBody List<String> ids,
+                                           @RequestParam(defaultValue = VIEW_FULL) String view) {
+        if (ids.size() > maxLookupSize) {
+            return ResponseEntity.badRequest().body("A lookup can contain at most " + maxLookupSize + " ids");
+        }
+        return ResponseEntity.ok(isSummary(view)
+                ? withAuthors(ids, RecipeSummaryDto.class, RecipeSummaryDto::id, RecipeSummaryDto::userId)
+                : withAuthors(ids, Recipe.class, Recipe::getId, Recipe::getUserId));
+    }
+
+    /**
+     * Retrieves a single recipe by its ID, honouring If-None-Match.
+     * Recipes are served through the in-process cache. On a cache miss the version check reads only
+     * id and version, so an unchanged recipe is answered with 304 Not Modified without fetching
+     * the full document. Only a 200 counts as a view of the recipe; a 304 is a client revalidating
+     * a copy it already has.
      * @param id The ID of the recipe to retrieve.
-     * @return A ResponseEntity containing the Recipe object and HTTP status 200 OK, or 404 Not Found.
+     * @return A ResponseEntity containing the Recipe object and HTTP status 200 OK, 304 Not Modified, or 404 Not Found.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Recipe> getRecipeById(@PathVariable String id) {
-        Optional<Recipe> recipe = recipeRepository.findById(id);
+    public ResponseEntity<Recipe> getRecipeById(@PathVariable String id, WebRequest request) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            Optional<RecipeVersionDto> version = recipeCacheService.peek(id).map(RecipeVersionDto::of)
+                    .or(() -> recipeRepository.findProjectedByIdAndDeletionDateIsNull(id, RecipeVersionDto.class));
+            if (version.isEmpty()) {
+                logger.warn("Recipe with ID: {} not found.", id);
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            }
+            if (request.checkNotModified(version.get().eTag())) {
+                logger.debug("Recipe with ID: {} not modified.", id);
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(recipeCacheControl()).build();
+            }
+        }
+
+        Optional<Recipe> recipe = recipeCacheService.findById(id);
         if (recipe.isPresent()) {
             logger.info("Retrieved recipe with ID: {}", id);
-            return new ResponseEntity<>(recipe.get(), HttpStatus.OK);
+            recipeEngagementService.recordView(id);
+            return ResponseEntity.ok()
+                    .cacheControl(recipeCacheControl())
+                    .eTag(RecipeVersionDto.of(recipe.get()).eTag())
+                    .body(recipe.get());
         } else {
             logger.warn("Recipe with ID: {} not found.", id);
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
@@ -118,7 +565,8 @@ public class RecipeController {
     }
 
     /**
-     * Updates an existing recipe by its ID.
+     * Updates an existing recipe by its ID. The ownership check and the write are a single
+     * conditional findAndModify on {_id, userId}.
      * @param id The ID of the recipe to update.
      * @param requestDto The RecipeRequestDto with updated data.
      * @return A ResponseEntity containing the updated Recipe object and HTTP status 200 OK, 404 Not Found, or 403 Forbidden.
@@ -126,67 +574,203 @@ public class RecipeController {
     @PutMapping("/{id}")
     public ResponseEntity<Recipe> updateRecipe(@PathVariable String id, @Valid @RequestBody RecipeRequestDto requestDto) {
         String currentUserId = SecurityContextHolder.getContext().getAuthentication().getName();
+        return toResponse(recipeWriteService.update(id, currentUserId, requestDto), id, currentUserId, "updated");
+    }
+
+    /**
+     * Changes only the fields present in the request body, in one conditional findAndModify.
+     * @param id The ID of the recipe to update.
+     * @param patchDto The fields to change; absent (null) fields are left as they are.
+     * @return A ResponseEntity containing the updated Recipe object and HTTP status 200 OK, 404 Not Found, or 403 Forbidden.
+     */
+    @PatchMapping("/{id}")
+    public ResponseEntity<Recipe> patchRecipe(@PathVariable String id, @Valid @RequestBody RecipePatchDto patchDto) {
+        String currentUserId = SecurityContextHolder.getContext().getAuthentication().getName();
+        return toResponse(recipeWriteService.patch(id, currentUserId, patchDto), id, currentUserId, "patched");
+    }
 
-        Optional<Recipe> optionalRecipe = recipeRepository.findById(id);
-        if (optionalRecipe.isEmpty()) {
-            logger.warn("Attempt to update non-existent recipe with ID: {}", id);
+    /**
+     * Soft-deletes a recipe by its ID: it gets a deletionDate, disappears from every read and is
+     * purged later by the background job. The ownership check and the write are a single conditional findAndModify.
+     * @param id The ID of the recipe to delete.
+     * @return A ResponseEntity with HTTP status 204 No Content, 404 Not Found, or 403 Forbidden.
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Recipe> deleteRecipe(@PathVariable String id) {
+        String currentUserId = SecurityContextHolder.getContext().getAuthentication().getName();
+        return toResponse(recipeWriteService.delete(id, currentUserId), id, currentUserId, "deleted");
+    }
+
+    /**
+     * Records that the current user saved a recipe. Saves weigh more than views in the trending sort.
+     * @param id The ID of the saved recipe.
+     * @return A ResponseEntity with HTTP status 204 No Content, or 404 Not Found.
+     */
+    @PostMapping("/{id}/saves")
+    public ResponseEntity<Void> recordSave(@PathVariable String id) {
+        if (recipeCacheService.findById(id).isEmpty()) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
+        recipeEngagementService.recordSave(id);
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
 
-        Recipe existingRecipe = optionalRecipe.get();
+    /**
+     * Sets the current user's rating of a recipe; rating again replaces the previous value.
+     * Any user may rate any recipe, including their own.
+     * @param id The ID of the recipe to rate.
+     * @param ratingDto The rating, 1 to 5.
+     * @return A ResponseEntity containing the rating and the recipe's aggregates and HTTP status 200 OK, or 404 Not Found.
+     */
+    @PutMapping("/{id}/rating")
+    public ResponseEntity<RecipeRatingDto> rateRecipe(@PathVariable String id, @Valid @RequestBody RatingRequestDto ratingDto) {
+        String currentUserId = SecurityContextHolder.getContext().getAuthentication().getName();
+        Optional<RecipeRatingDto> rating = recipeRatingService.rate(id, currentUserId, ratingDto.value());
+        if (rating.isEmpty()) {
+            logger.warn("Recipe with ID: {} not rated: it does not exist.", id);
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        logger.info("Recipe with ID: {} rated {} by user: {}", id, ratingDto.value(), currentUserId);
+        return ResponseEntity.ok(rating.get());
+    }
+
+    /**
+     * Retrieves the current user's rating of a recipe and the recipe's rating count and average.
+     * @param id The ID of the recipe.
+     * @return A ResponseEntity containing the rating (value null if not rated) and HTTP status 200 OK, or 404 Not Found.
+     */
+    @GetMapping("/{id}/rating")
+    public ResponseEntity<RecipeRatingDto> getRating(@PathVariable String id) {
+        String currentUserId = SecurityContextHolder.getContext().getAuthentication().getName();
+        return recipeRatingService.find(id, currentUserId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
 
-        // Security check: Ensure the authenticated user owns this recipe
-        if (!existingRecipe.getUserId().equals(currentUserId)) {
-            logger.warn("User {} attempted to update recipe {} which belongs to {}. Access denied.", currentUserId, id, existingRecipe.getUserId());
-            return new ResponseEntity<>(HttpStatus.FORBIDDEN); // 403 Forbidden
+    /**
+     * Withdraws the current user's rating of a recipe.
+     * @param id The ID of the recipe.
+     * @return A ResponseEntity with HTTP status 204 No Content, or 404 Not Found if the user had not rated it.
+     */
+    @DeleteMapping("/{id}/rating")
+    public ResponseEntity<Void> deleteRating(@PathVariable String id) {
+        String currentUserId = SecurityContextHolder.getContext().getAuthentication().getName();
+        if (!recipeRatingService.remove(id, currentUserId)) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
+        logger.info("Rating of recipe with ID: {} withdrawn by user: {}", id, currentUserId);
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
 
-        // Update fields from DTO to an existing Recipe model
-        existingRecipe.setTitle(requestDto.title());
-        existingRecipe.setDescription(requestDto.description());
-        existingRecipe.setServings(requestDto.servings());
-        existingRecipe.setImageUrl(requestDto.imageUrl());
-        existingRecipe.setIngredients(requestDto.ingredients());
-        existingRecipe.setMethods(requestDto.methods());
-        existingRecipe.setPrepTime(requestDto.prepTime());
-        existingRecipe.setCookTime(requestDto.cookTime());
-        existingRecipe.setTags(requestDto.tags());
-        existingRecipe.setCategories(requestDto.categories());
-        existingRecipe.setNotes(requestDto.notes());
-        existingRecipe.setRating(requestDto.rating());
+    private ResponseEntity<Recipe> toResponse(RecipeWriteService.Result result, String id, String userId, String pastTense) {
+        if (result.succeeded()) {
+            logger.info("Recipe with ID: {} {} by user: {}", id, pastTense, userId);
+        } else if (result.status() == HttpStatus.FORBIDDEN) {
+            logger.warn("Recipe with ID: {} not {}: user {} is not the owner. Access denied.", id, pastTense, userId);
+        } else {
+            logger.warn("Recipe with ID: {} not {}: it does not exist.", id, pastTense);
+        }
+        return new ResponseEntity<>(result.recipe(), result.status());
+    }
 
-        existingRecipe.setUpdateDate(LocalDateTime.now()); // Update timestamp
+    private CacheControl recipeCacheControl() {
+        // Private: recipe reads are authenticated. must-revalidate makes clients come back with If-None-Match.
+        return CacheControl.maxAge(recipeCacheMaxAge, TimeUnit.SECONDS).cachePrivate().mustRevalidate();
+    }
+
+    private static boolean isSummary(String view) {
+        return VIEW_SUMMARY.equalsIgnoreCase(view);
+    }
 
-        Recipe updatedRecipe = recipeRepository.save(existingRecipe);
-        logger.info("Recipe with ID: {} updated by user: {}", id, currentUserId);
-        return new ResponseEntity<>(updatedRecipe, HttpStatus.OK);
+    private CursorPageDto<?> findPage(String userId, String cursor, Integer size, String view) {
+        return isSummary(view)
+                ? findPage(cursor, size, RecipeSummaryDto.class, RecipeCursor::after, ownerPages(userId, RecipeSummaryDto.class))
+                : findPage(cursor, size, Recipe.class, RecipeCursor::after, ownerPages(userId, Recipe.class));
+    }
+
+    /** Fetches the rows of one keyset page; {@code after} is null for the first page. */
+    private interface PageQuery<T> {
+        List<T> fetch(RecipeCursor after, Limit limit);
+    }
+
+    /** All recipes, or one owner's when userId is set. */
+    private <T> PageQuery<T> ownerPages(String userId, Class<T> type) {
+        return (after, limit) -> {
+            if (after == null) {
+                return userId == null
+                        ? recipeRepository.findFirstPage(limit, type)
+                        : recipeRepository.findFirstPageByUserId(userId, limit, type);
+            }
+            return userId == null
+                    ? recipeRepository.findPageAfter(after.updateDate(), after.id(), limit, type)
+                    : recipeRepository.findPageByUserIdAfter(userId, after.updateDate(), after.id(), limit, type);
+        };
+    }
+
+    private <T> PageQuery<T> ingredientPages(Set<String> names, Class<T> type) {
+        return (after, limit) -> after == null
+                ? recipeRepository.findFirstPageByIngredientNames(names, limit, type)
+                : recipeRepository.findPageByIngredientNamesAfter(names, after.updateDate(), after.id(), limit, type);
     }
 
     /**
-     * Deletes a recipe by its ID.
-     * @param id The ID of the recipe to delete.
-     * @return A ResponseEntity with HTTP status 204 No Content, 404 Not Found, or 403 Forbidden.
+     * Reads one keyset page. One extra row is fetched to know whether a next page exists
+     * without issuing a count query.
+     * @throws IllegalArgumentException if the cursor cannot be decoded.
      */
-    @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteRecipe(@PathVariable String id) {
-        String currentUserId = SecurityContextHolder.getContext().getAuthentication().getName();
+    private <T> CursorPageDto<T> findPage(String cursor, Integer size, Class<T> type,
+                                          Function<T, RecipeCursor> cursorOf, PageQuery<T> query) {
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+        Limit limit = Limit.of(pageSize + 1);
+        RecipeCursor after = cursor == null || cursor.isBlank() ? null : RecipeCursor.decode(cursor);
+        List<T> recipes = query.fetch(after, limit);
 
-        Optional<Recipe> optionalRecipe = recipeRepository.findById(id);
-        if (optionalRecipe.isEmpty()) {
-            logger.warn("Attempt to delete non-existent recipe with ID: {}", id);
-            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        String nextCursor = null;
+        if (recipes.size() > pageSize) {
+            recipes = recipes.subList(0, pageSize);
+            nextCursor = cursorOf.apply(recipes.get(pageSize - 1)).encode();
         }
+        return new CursorPageDto<>(recipes, nextCursor);
+    }
 
-        Recipe recipeToDelete = optionalRecipe.get();
-
-        // Security check: Ensure the authenticated user owns this recipe
-        if (!recipeToDelete.getUserId().equals(currentUserId)) {
-            logger.warn("User {} attempted to delete recipe {} which belongs to {}. Access denied.", currentUserId, id, recipeToDelete.getUserId());
-            return new ResponseEntity<>(HttpStatus.FORBIDDEN); // 403 Forbidden
+    /** One entry per requested id, in request order; duplicates are answered from the same lookups. */
+    private <T> List<RecipeWithAuthorDto<T>> withAuthors(List<String> ids, Class<T> type,
+                                                         Function<T, String> idOf, Function<T, String> userIdOf) {
+        Set<String> distinctIds = new LinkedHashSet<>(ids);
+        Map<String, T> recipes = new HashMap<>();
+        Set<String> userIds = new LinkedHashSet<>();
+        for (T recipe : recipeRepository.findByIdInAndDeletionDateIsNull(distinctIds, type)) {
+            recipes.put(idOf.apply(recipe), recipe);
+            if (userIdOf.apply(recipe) != null) {
+                userIds.add(userIdOf.apply(recipe));
+            }
         }
+        Map<String, AuthorDto> authors = userService.findAuthors(userIds);
+        List<RecipeWithAuthorDto<T>> result = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            T recipe = recipes.get(id);
+            AuthorDto author = recipe == null || userIdOf.apply(recipe) == null ? null : authors.get(userIdOf.apply(recipe));
+            result.add(new RecipeWithAuthorDto<>(id, recipe, author));
+        }
+        return result;
+    }
 
-        recipeRepository.deleteById(id); // Performs the actual deletion
-        logger.info("Recipe with ID: {} deleted by user: {}", id, currentUserId);
-        return new ResponseEntity<>(HttpStatus.NO_CONTENT); // 204 No Content
+    /**
+     * Loads recipes with a single $in query and returns them in the order of the given ids,
+     * skipping ids that no longer exist.
+     */
+    private <T> List<T> findAllInOrder(List<String> ids, Class<T> type, Function<T, String> idOf) {
+        Map<String, T> byId = new HashMap<>();
+        for (T recipe : recipeRepository.findByIdInAndDeletionDateIsNull(ids, type)) {
+            byId.put(idOf.apply(recipe), recipe);
+        }
+        List<T> ordered = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            T recipe = byId.get(id);
+            if (recipe != null) {
+                ordered.add(recipe);
+            }
+        }
+        return ordered;
     }
-}
\ No newline at end of file
+}
@@ -1,18 +1,28 @@
 package backend.recimeclone.controllers;
 
+import backend.recimeclone.dtos.UrlImportJobDto;
+import backend.recimeclone.dtos.UrlImportJobRequestDto;
 import backend.recimeclone.dtos.UrlRequest;
 import backend.recimeclone.dtos.TextRequest;
 import backend.recimeclone.models.Recipe;
 import backend.recimeclone.repos.RecipeRepository;
+import backend.recimeclone.service.RecipeChangedEvent;
 import backend.recimeclone.service.RecipeScraperService;
+import backend.recimeclone.service.RecipeUrlImportService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/v1/recipe-scraper")
@@ -24,6 +34,14 @@ public class RecipeScraperController {
 
     private final RecipeScraperService scraperService;
     private final RecipeRepository recipeRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RecipeUrlImportService urlImportService;
+
+    @Value("${recipes.url-import.max-urls:100}")
+    private int maxJobUrls;
+
+    @Value("${recipes.url-import.events-timeout:30m}")
+    private Duration eventsTimeout;
 
     @PostMapping("/extract")
     public ResponseEntity<?> extractRecipeFromUrl(@Valid @RequestBody UrlRequest request) {
@@ -82,6 +100,7 @@ public class RecipeScraperController {
 
             // Save to database
             Recipe savedRecipe = recipeRepository.save(recipe);
+            eventPublisher.publishEvent(RecipeChangedEvent.created(savedRecipe));
 
             logger.info("Extracted and saved recipe: {} by user: {}", savedRecipe.getTitle(), currentUserId);
             return ResponseEntity.status(HttpStatus.CREATED).body(savedRecipe);
@@ -109,6 +128,7 @@ public class RecipeScraperController {
 
             // Save to database
             Recipe savedRecipe = recipeRepository.save(recipe);
+            eventPublisher.publishEvent(RecipeChangedEvent.created(savedRecipe));
 
             logger.info("Parsed and saved recipe: {} by user: {}", savedRecipe.getTitle(), currentUserId);
             return ResponseEntity.status(HttpStatus.CREATED).body(savedRecipe);
@@ -118,4 +138,52 @@ public class RecipeScraperController {
                     .body("Failed to parse and save recipe: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Starts a background job that extracts and saves recipes from many URLs. Returns at once;
+     * follow the job with {@link #getImportJob} or {@link #followImportJob}.
+     * @param request Up to recipes.url-import.max-urls URLs.
+     * @return A ResponseEntity containing the new job with HTTP status 202 Accepted, 400 Bad Request if there are
+     *         too many URLs, or 503 Service Unavailable if this instance already has too many URLs queued.
+     */
+    @PostMapping("/jobs")
+    public ResponseEntity<?> submitImportJob(@Valid @RequestBody UrlImportJobRequestDto request) {
+        if (request.urls().size() > maxJobUrls) {
+            return ResponseEntity.badRequest().body("A job can contain at most " + maxJobUrls + " URLs");
+        }
+        String currentUserId = SecurityContextHolder.getContext().getAuthentication().getName();
+        Optional<UrlImportJobDto> job = urlImportService.submit(currentUserId, request.urls());
+        if (job.isEmpty()) {
+            logger.warn("Rejected URL import job of {} URLs by user {}: too many URLs pending", request.urls().size(), currentUserId);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Too many imports in progress, try again later");
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job.get());
+    }
+
+    /**
+     * Polls a URL import job.
+     * @param id The job id returned on submission.
+     * @return A ResponseEntity containing the job's state and HTTP status 200 OK, or 404 Not Found.
+     */
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<UrlImportJobDto> getImportJob(@PathVariable String id) {
+        String currentUserId = SecurityContextHolder.getContext().getAuthentication().getName();
+        return urlImportService.find(id, currentUserId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Follows a URL import job over server-sent events: a "job" event with the full state now and
+     * after every change. The stream ends when the job is done or interrupted.
+     * @param id The job id returned on submission.
+     * @return The event stream, or 404 Not Found.
+     */
+    @GetMapping(value = "/jobs/{id}/events", produces = "text/event-stream")
+    public ResponseEntity<SseEmitter> followImportJob(@PathVariable String id) {
+        String currentUserId = SecurityContextHolder.getContext().getAuthentication().getName();
+        return urlImportService.subscribe(id, currentUserId, eventsTimeout.toMillis())
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,6 @@
+package backend.recimeclone.dtos;
+
+/**
+ * The public part of a user, embedded in recipes. Never carries the email, password or verification state.
+ */
+public record AuthorDto(String id, String username, String userProfileUrl) {}
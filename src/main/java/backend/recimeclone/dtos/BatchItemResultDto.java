@@ -0,0 +1,20 @@
+package backend.recimeclone.dtos;
+
+/**
+ * Outcome of one item in a batch request.
+ * @param index Position of the item in the request array.
+ * @param id The recipe id, or null if the item was rejected before an id was assigned.
+ * @param status HTTP-style status for this item (201, 200, 204, 400, 403, 404, 409 or 500);
+ *               409 if the recipe changed hands between the ownership check and the write.
+ * @param error Reason for a failed item, null on success.
+ */
+public record BatchItemResultDto(int index, String id, int status, String error) {
+
+    public static BatchItemResultDto success(int index, String id, int status) {
+        return new BatchItemResultDto(index, id, status, null);
+    }
+
+    public static BatchItemResultDto failure(int index, String id, int status, String error) {
+        return new BatchItemResultDto(index, id, status, error);
+    }
+}
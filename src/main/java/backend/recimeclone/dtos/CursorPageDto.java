@@ -0,0 +1,10 @@
+package backend.recimeclone.dtos;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing.
+ * @param items The items on this page.
+ * @param nextCursor Opaque token to pass as {@code cursor} for the next page, or null on the last page.
+ */
+public record CursorPageDto<T>(List<T> items, String nextCursor) {}
@@ -0,0 +1,3 @@
+package backend.recimeclone.dtos;
+
+public record FacetCountDto(String value, int count) {}
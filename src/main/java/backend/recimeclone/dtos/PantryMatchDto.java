@@ -0,0 +1,12 @@
+package backend.recimeclone.dtos;
+
+import java.util.List;
+
+/**
+ * A recipe ranked by pantry coverage.
+ * @param matched How many of the recipe's distinct ingredients the pantry covers.
+ * @param total How many distinct ingredients the recipe has.
+ * @param coverage matched / total.
+ * @param missing The ingredients still needed.
+ */
+public record PantryMatchDto(RecipeSummaryDto recipe, int matched, int total, double coverage, List<String> missing) {}
@@ -0,0 +1,18 @@
+package backend.recimeclone.dtos;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+/**
+ * The ingredients a user has at hand, e.g. ["chicken breast", "garlic", "rice"].
+ * @param maxMissing Only return recipes missing at most this many ingredients; null for no bound.
+ */
+public record PantryRequestDto(
+        @NotEmpty(message = "At least one ingredient is required")
+        List<String> ingredients,
+
+        @Min(value = 0, message = "maxMissing cannot be negative")
+        Integer maxMissing
+) {}
@@ -0,0 +1,7 @@
+package backend.recimeclone.dtos;
+
+/**
+ * One entry of a batch update: the recipe to replace and its new content.
+ * Validated per item by the batch endpoint rather than as a whole request.
+ */
+public record RecipeBatchUpdateDto(String id, RecipeRequestDto recipe) {}
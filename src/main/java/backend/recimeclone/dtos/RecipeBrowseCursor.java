@@ -0,0 +1,35 @@
+package backend.recimeclone.dtos;
+
+import org.bson.types.ObjectId;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of the last recipe returned in a browse page: the sort it belongs to, the recipe's
+ * sort value and its id. Clients only ever see the opaque, URL-safe string produced by {@link #encode()}.
+ */
+public record RecipeBrowseCursor(String sort, String value, ObjectId id) {
+
+    private static final char SEPARATOR = '|';
+
+    public String encode() {
+        String raw = sort + SEPARATOR + value + SEPARATOR + id.toHexString();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode()}. The value sits between the first and the
+     * last separator, so it may contain separators itself (titles can).
+     * @throws IllegalArgumentException if the token is malformed or was not issued by this API.
+     */
+    public static RecipeBrowseCursor decode(String token) {
+        String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        int first = raw.indexOf(SEPARATOR);
+        int last = raw.lastIndexOf(SEPARATOR);
+        if (first < 0 || first == last) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return new RecipeBrowseCursor(raw.substring(0, first), raw.substring(first + 1, last), new ObjectId(raw.substring(last + 1)));
+    }
+}
@@ -0,0 +1,50 @@
+package backend.recimeclone.dtos;
+
+import backend.recimeclone.models.Recipe;
+import org.bson.types.ObjectId;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position of the last recipe returned in a keyset page: its updateDate and id.
+ * Clients only ever see the opaque, URL-safe string produced by {@link #encode()}.
+ */
+public record RecipeCursor(LocalDateTime updateDate, ObjectId id) {
+
+    private static final char SEPARATOR = '|';
+
+    public static RecipeCursor after(Recipe recipe) {
+        return new RecipeCursor(recipe.getUpdateDate(), new ObjectId(recipe.getId()));
+    }
+
+    public static RecipeCursor after(RecipeSummaryDto recipe) {
+        return new RecipeCursor(recipe.updateDate(), new ObjectId(recipe.id()));
+    }
+
+    public String encode() {
+        String raw = updateDate + String.valueOf(SEPARATOR) + id.toHexString();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode()}.
+     * @throws IllegalArgumentException if the token is malformed or was not issued by this API.
+     */
+    public static RecipeCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new RecipeCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    new ObjectId(raw.substring(separator + 1)));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package backend.recimeclone.dtos;
+
+import java.util.List;
+
+/**
+ * Tag and category counts, most frequent first.
+ */
+public record RecipeFacetsDto(List<FacetCountDto> tags, List<FacetCountDto> categories) {}
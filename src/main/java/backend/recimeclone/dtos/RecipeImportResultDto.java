@@ -0,0 +1,13 @@
+package backend.recimeclone.dtos;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk import.
+ * @param imported Recipes written.
+ * @param rejected Records that failed validation or were rejected by the database.
+ * @param errors The first rejected records, with index = position among the recipe records in the input.
+ * @param aborted Why reading stopped early (malformed input, record limit), or null if the whole input was read.
+ *                Recipes read before that point are imported.
+ */
+public record RecipeImportResultDto(long imported, long rejected, List<BatchItemResultDto> errors, String aborted) {}
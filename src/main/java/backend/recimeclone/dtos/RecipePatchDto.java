@@ -0,0 +1,77 @@
+package backend.recimeclone.dtos;
+
+import backend.recimeclone.models.Recipe;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+
+/**
+ * Partial recipe update: only the fields present (non-null) are changed.
+ * Same constraints as {@link RecipeRequestDto}, except that nothing is required.
+ */
+public record RecipePatchDto(
+        @Size(min = 3, max = 100, message = "Title must be between 3 and 100 characters")
+        String title,
+
+        String description,
+
+        @Min(value = 1, message = "Servings must be at least 1")
+        Integer servings,
+
+        String imageUrl,
+
+        @Size(min = 1, message = "Recipe must have at least one ingredient")
+        List<String> ingredients,
+
+        @Size(min = 1, message = "Recipe must have at least one method step")
+        List<String> methods,
+
+        @Min(value = 0, message = "Preparation time cannot be negative")
+        Integer prepTime,
+
+        @Min(value = 0, message = "Cook time cannot be negative")
+        Integer cookTime,
+
+        List<String> tags,
+        List<String> categories,
+        String notes,
+
+        @Min(value = 0, message = "Rating must be between 0 and 5")
+        @Max(value = 5, message = "Rating must be between 0 and 5")
+        Integer rating
+) {
+    /** Adds a $set for every field present in this patch. */
+    public void addTo(Update update) {
+        if (title != null) update.set("title", title);
+        if (description != null) update.set("description", description);
+        if (servings != null) update.set("servings", servings);
+        if (imageUrl != null) update.set("imageUrl", imageUrl);
+        if (ingredients != null) update.set("ingredients", ingredients);
+        if (methods != null) update.set("methods", methods);
+        if (prepTime != null) update.set("prepTime", prepTime);
+        if (cookTime != null) update.set("cookTime", cookTime);
+        if (tags != null) update.set("tags", tags);
+        if (categories != null) update.set("categories", categories);
+        if (notes != null) update.set("notes", notes);
+        if (rating != null) update.set("rating", rating);
+    }
+
+    /** Applies the same changes as {@link #addTo(Update)} to an in-memory recipe. */
+    public void applyTo(Recipe recipe) {
+        if (title != null) recipe.setTitle(title);
+        if (description != null) recipe.setDescription(description);
+        if (servings != null) recipe.setServings(servings);
+        if (imageUrl != null) recipe.setImageUrl(imageUrl);
+        if (ingredients != null) recipe.setIngredients(ingredients);
+        if (methods != null) recipe.setMethods(methods);
+        if (prepTime != null) recipe.setPrepTime(prepTime);
+        if (cookTime != null) recipe.setCookTime(cookTime);
+        if (tags != null) recipe.setTags(tags);
+        if (categories != null) recipe.setCategories(categories);
+        if (notes != null) recipe.setNotes(notes);
+        if (rating != null) recipe.setRating(rating);
+    }
+}
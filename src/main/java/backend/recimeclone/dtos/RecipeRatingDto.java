@@ -0,0 +1,9 @@
+package backend.recimeclone.dtos;
+
+/**
+ * The caller's rating of a recipe together with the recipe's community aggregates.
+ * @param value The caller's rating, or null if they have not rated the recipe.
+ * @param ratingCount Number of ratings; may lag recent ratings by up to one buffer flush.
+ * @param ratingAverage Average rating, 0 when there are none; lags like ratingCount.
+ */
+public record RecipeRatingDto(String recipeId, Integer value, long ratingCount, double ratingAverage) {}
@@ -1,5 +1,8 @@
 package backend.recimeclone.dtos;
 
+import backend.recimeclone.models.Recipe;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -8,6 +11,8 @@ import jakarta.validation.constraints.Size;
 
 
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 public record RecipeRequestDto(
         @NotBlank(message = "Title is required")
@@ -43,4 +48,47 @@ public record RecipeRequestDto(
         @Min(value = 0, message = "Rating must be between 0 and 5")
         @Max(value = 5, message = "Rating must be between 0 and 5")
         Integer rating
-) {}
\ No newline at end of file
+) {
+    /**
+     * The client-editable fields of a recipe built elsewhere (an import or a scrape), so it can be
+     * validated like a request.
+     */
+    public static RecipeRequestDto of(Recipe recipe) {
+        return new RecipeRequestDto(recipe.getTitle(), recipe.getDescription(), recipe.getServings(), recipe.getImageUrl(),
+                recipe.getIngredients(), recipe.getMethods(), recipe.getPrepTime(), recipe.getCookTime(),
+                recipe.getTags(), recipe.getCategories(), recipe.getNotes(), recipe.getRating());
+    }
+
+    /**
+     * Validates the request outside of a controller, e.g. one item of a batch or an import.
+     * @return The violations as "field: message" pairs, sorted and joined with "; ", or null if the request is valid.
+     */
+    public String violations(Validator validator) {
+        Set<ConstraintViolation<RecipeRequestDto>> violations = validator.validate(this);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    /**
+     * Copies the client-editable fields onto a recipe. Ownership and timestamps are left to the caller.
+     */
+    public void applyTo(Recipe recipe) {
+        recipe.setTitle(title);
+        recipe.setDescription(description);
+        recipe.setServings(servings);
+        recipe.setImageUrl(imageUrl);
+        recipe.setIngredients(ingredients);
+        recipe.setMethods(methods);
+        recipe.setPrepTime(prepTime);
+        recipe.setCookTime(cookTime);
+        recipe.setTags(tags);
+        recipe.setCategories(categories);
+        recipe.setNotes(notes);
+        recipe.setRating(rating != null ? rating : 0); // Rating might be null if not provided
+    }
+}
\ No newline at end of file
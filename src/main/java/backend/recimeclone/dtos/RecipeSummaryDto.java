@@ -0,0 +1,34 @@
+package backend.recimeclone.dtos;
+
+import backend.recimeclone.models.Recipe;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * The fields a recipe list screen needs. Used as a Spring Data projection, so only these
+ * fields are read from MongoDB; ingredients, methods, notes and description never leave the server.
+ * The community rating aggregates are boxed because recipes stored before ratings existed lack them.
+ */
+public record RecipeSummaryDto(
+        String id,
+        String userId,
+        String title,
+        String imageUrl,
+        int servings,
+        int prepTime,
+        int cookTime,
+        int rating,
+        Long ratingCount,
+        Double ratingAverage,
+        List<String> tags,
+        List<String> categories,
+        LocalDateTime updateDate
+) {
+    public static RecipeSummaryDto of(Recipe recipe) {
+        return new RecipeSummaryDto(recipe.getId(), recipe.getUserId(), recipe.getTitle(), recipe.getImageUrl(),
+                recipe.getServings(), recipe.getPrepTime(), recipe.getCookTime(), recipe.getRating(),
+                recipe.getRatingCount(), recipe.getRatingAverage(),
+                recipe.getTags(), recipe.getCategories(), recipe.getUpdateDate());
+    }
+}
@@ -0,0 +1,14 @@
+package backend.recimeclone.dtos;
+
+import java.util.List;
+
+/**
+ * One page of changes since a client's last sync.
+ * @param changed Recipes created or updated since the high-water mark, oldest change first.
+ * @param deleted Ids of recipes deleted since the high-water mark.
+ * @param since The new high-water mark: pass it as {@code since} next time. Null only if there was nothing to sync yet.
+ * @param hasMore True if more changes are waiting; request again right away with the new mark.
+ * @param resetRequired True if the mark is older than the tombstone retention period, so deletions may
+ *                      have been missed: the client must drop its copy and sync from scratch (no {@code since}).
+ */
+public record RecipeSyncDto<T>(List<T> changed, List<String> deleted, String since, boolean hasMore, boolean resetRequired) {}
@@ -0,0 +1,24 @@
+package backend.recimeclone.dtos;
+
+import backend.recimeclone.models.Recipe;
+
+/**
+ * Just enough of a recipe to tell which version it is. Read as a projection so conditional
+ * GETs can be answered without fetching the whole document.
+ * <p>
+ * The version counts every write to a returned field, including the batched rating updates that
+ * do not touch updateDate, so the entity tag changes whenever any field of the response does.
+ * Engagement counters and the trending score are not returned, and their flushes leave it alone.
+ * updateDate only follows the owner's edits, which is why it is not offered for validation.
+ */
+public record RecipeVersionDto(String id, Long version) {
+
+    public static RecipeVersionDto of(Recipe recipe) {
+        return new RecipeVersionDto(recipe.getId(), recipe.getVersion());
+    }
+
+    /** Strong entity tag (quoted). Recipes stored before versions existed count as version 0. */
+    public String eTag() {
+        return "\"" + id + "-v" + Long.toHexString(version == null ? 0 : version) + "\"";
+    }
+}
@@ -0,0 +1,9 @@
+package backend.recimeclone.dtos;
+
+/**
+ * One requested recipe and its author.
+ * @param id The requested id.
+ * @param recipe The recipe (full or summary), or null if it does not exist.
+ * @param author The recipe's author, or null if the recipe does not exist or its author has no account.
+ */
+public record RecipeWithAuthorDto<T>(String id, T recipe, AuthorDto author) {}
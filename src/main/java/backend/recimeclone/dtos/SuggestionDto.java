@@ -0,0 +1,7 @@
+package backend.recimeclone.dtos;
+
+/**
+ * One typeahead completion.
+ * @param type "title", "tag" or "ingredient".
+ */
+public record SuggestionDto(String text, String type) {}
@@ -0,0 +1,22 @@
+package backend.recimeclone.dtos;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * State of a batch URL import job.
+ * @param status "running" until every URL is saved or has failed, then "done"; "interrupted" if the
+ *               instance running the job stopped first.
+ * @param items One entry per submitted URL, in submission order.
+ */
+public record UrlImportJobDto(String id, String status, int total, int saved, int failed,
+                              LocalDateTime creationDate, List<Item> items) {
+
+    /**
+     * One URL of the job.
+     * @param status "queued", "extracting", "extracted" (waiting to be saved with its batch), "saved" or "failed".
+     * @param recipeId The saved recipe's id, once saved.
+     * @param error Why the URL failed, null otherwise.
+     */
+    public record Item(String url, String status, String recipeId, String error) {}
+}
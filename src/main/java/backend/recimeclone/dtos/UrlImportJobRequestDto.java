@@ -0,0 +1,11 @@
+package backend.recimeclone.dtos;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Pattern;
+
+import java.util.List;
+
+public record UrlImportJobRequestDto(
+        @NotEmpty(message = "At least one URL is required")
+        List<@Pattern(regexp = "^https?://.*", message = "Must be a valid HTTP/HTTPS URL") String> urls
+) {}
@@ -0,0 +1,21 @@
+package backend.recimeclone.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Structured form of one entry of {@link Recipe#getIngredients()}, e.g. "1 1/2 cups plain flour"
+ * becomes quantity 1.5, unit "cup", name "plain flour". Embedded in the recipe document.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParsedIngredient {
+
+    private Double quantity; // null when the line has no amount ("salt to taste")
+
+    private String unit; // canonical unit, null when there is none ("2 eggs")
+
+    private String name; // lower-cased, singular, without preparation notes
+}
@@ -1,8 +1,13 @@
 package backend.recimeclone.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -10,8 +15,26 @@ import java.util.List;
 
 
 @Document(collection = "Recipes")
+// Backs keyset pagination: newest first, _id breaks ties between equal updateDates
+@CompoundIndex(name = "updateDate_id", def = "{'updateDate': -1, '_id': -1}")
+// Same ordering scoped to one owner, so a user's library is a single index range scan
+@CompoundIndex(name = "userId_updateDate_id", def = "{'userId': 1, 'updateDate': -1, '_id': -1}")
+// Multikey: one entry per ingredient name, so ingredient filters keep the newest-first keyset order
+@CompoundIndex(name = "ingredientNames_updateDate_id", def = "{'ingredientNames': 1, 'updateDate': -1, '_id': -1}")
+// Browse indexes: sort key first, then the range-filtered fields, so filtered and sorted pages are
+// read from the index alone (covered). Tombstones have no totalTime and are left out of all of them.
+@CompoundIndex(name = "browse_ratingAverage", def = "{'ratingAverage': -1, '_id': -1, 'totalTime': 1, 'ingredientCount': 1}",
+        partialFilter = "{ 'totalTime': { '$gte': 0 } }")
+@CompoundIndex(name = "browse_totalTime", def = "{'totalTime': 1, '_id': 1, 'ingredientCount': 1}",
+        partialFilter = "{ 'totalTime': { '$gte': 0 } }")
+@CompoundIndex(name = "browse_sortTitle", def = "{'sortTitle': 1, '_id': 1, 'totalTime': 1, 'ingredientCount': 1}",
+        partialFilter = "{ 'totalTime': { '$gte': 0 } }")
+@CompoundIndex(name = "browse_trending", def = "{'trendingScore': -1, '_id': -1, 'totalTime': 1, 'ingredientCount': 1}",
+        partialFilter = "{ 'totalTime': { '$gte': 0 } }")
 @Data
 @NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true) // toBuilder() gives a snapshot of the previous state before an update
 public class Recipe {
 @Id
     private String id;
@@ -28,16 +51,35 @@ public class Recipe {
 
     private List<String> ingredients;
 
+    // Derived from ingredients on every write (see RecipeIngredientParser); never set by clients
+    private List<ParsedIngredient> parsedIngredients;
+
+    private List<String> ingredientNames;
+
     private List<String> methods ;
 
     private int prepTime;
 
     private int cookTime;
 
+    // Derived on every write (see RecipeDerivedFields); totalTime is unset when the recipe is soft-deleted
+    private Integer totalTime;
+
+    private int ingredientCount;
+
+    private String sortTitle;
+
     private LocalDateTime creationDate;
 
     private LocalDateTime updateDate;
 
+    // Incremented by every write to a returned field, including the batched rating updates that
+    // leave updateDate alone; the ETag is built from it (see RecipeVersionDto)
+    private long version;
+
+    // Set when the recipe is soft-deleted; the purge job removes it for good after the retention period.
+    // Only tombstones have this field, so the partial index stays as small as the set of pending purges.
+    @Indexed(name = "deletionDate_tombstones", partialFilter = "{ 'deletionDate': { '$exists': true } }")
     private LocalDateTime deletionDate;
 
     private List<String> tags;
@@ -46,6 +88,29 @@ public class Recipe {
 
     private String notes;
 
-    private int rating;
+    private int rating; // the owner's own rating
+
+    // Community rating aggregates, maintained with $inc from RecipeRating changes (see RecipeRatingBuffer)
+    private long ratingCount;
+
+    private long ratingSum;
+
+    private double ratingAverage;
+
+    // Engagement, written in batches by RecipeEngagementService; null (not stored) until the first view or save.
+    // Only inputs to the trending score, and kept out of responses so their flushes do not change the ETag.
+    @JsonIgnore
+    private Long viewCount;
+
+    @JsonIgnore
+    private Long saveCount;
+
+    // Time-decayed popularity, scaled to trendingGeneration (see RecipeEngagementService). Only
+    // comparable within one generation and moved by every rescale, so not part of the API.
+    @JsonIgnore
+    private Double trendingScore;
+
+    @JsonIgnore
+    private Integer trendingGeneration;
 
 }
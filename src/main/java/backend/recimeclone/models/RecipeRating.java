@@ -0,0 +1,33 @@
+package backend.recimeclone.models;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * One user's rating of one recipe. The recipe's ratingCount, ratingSum and ratingAverage are
+ * maintained from changes to these documents.
+ */
+@Data
+@NoArgsConstructor
+@Document(collection = "RecipeRatings")
+// One rating per user and recipe; also serves the lookup of a user's rating and the purge by recipeId
+@CompoundIndex(name = "recipeId_userId", def = "{'recipeId': 1, 'userId': 1}", unique = true)
+public class RecipeRating {
+    @Id
+    private String id;
+
+    private String recipeId;
+
+    private String userId;
+
+    private int value; // 1 to 5
+
+    private LocalDateTime creationDate;
+
+    private LocalDateTime updateDate;
+}
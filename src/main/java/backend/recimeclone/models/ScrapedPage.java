@@ -0,0 +1,35 @@
+package backend.recimeclone.models;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * The recipe last extracted from a web page, with the validators needed to revalidate it.
+ * Kept after it goes stale, until expireAt, so a 304 Not Modified can renew it without a download.
+ */
+@Data
+@NoArgsConstructor
+@Document(collection = "ScrapedPages")
+public class ScrapedPage {
+    @Id
+    private String id; // The canonical URL
+
+    // The extracted recipe as stored, so Recipe's indexes are not created on this collection
+    private org.bson.Document recipe;
+
+    private String etag;
+
+    private String lastModified;
+
+    private LocalDateTime fetchedAt;
+
+    private LocalDateTime freshUntil; // Served without asking the site until then
+
+    @Indexed(name = "expireAt_ttl", expireAfterSeconds = 0)
+    private LocalDateTime expireAt;
+}
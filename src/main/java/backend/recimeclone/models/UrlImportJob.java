@@ -0,0 +1,58 @@
+package backend.recimeclone.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A batch URL import job. Written by the instance that runs it and readable by every instance,
+ * so the job endpoints answer wherever a request lands and the outcome survives restarts.
+ */
+@Data
+@NoArgsConstructor
+@Document(collection = "UrlImportJobs")
+public class UrlImportJob {
+    @Id
+    private String id;
+
+    private String userId;
+
+    private String status; // "running", "done", or "interrupted" if the running instance stopped
+
+    private int total;
+
+    private int saved;
+
+    private int failed;
+
+    private List<Item> items; // One per submitted URL, in submission order
+
+    private LocalDateTime creationDate;
+
+    private LocalDateTime finishedAt;
+
+    // Renewed by the running instance while it works; a running job past it was interrupted
+    private LocalDateTime aliveUntil;
+
+    // Incremented by every write, so followers only send actual changes
+    private long version;
+
+    @Indexed(name = "expireAt_ttl", expireAfterSeconds = 0)
+    private LocalDateTime expireAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private String url;
+        private String status; // "queued", "extracting", "extracted", "saved" or "failed"
+        private String recipeId;
+        private String error;
+    }
+}
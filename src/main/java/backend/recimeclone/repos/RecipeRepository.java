@@ -1,10 +1,52 @@
 package backend.recimeclone.repos;
 
 import backend.recimeclone.models.Recipe;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface RecipeRepository extends MongoRepository<Recipe,String> {
 
+    // Read paths only ever see live recipes: soft-deleted ones carry a deletionDate until purged.
+    // Listing queries take the result type as a dynamic projection: Recipe.class for full documents,
+    // or a DTO such as RecipeSummaryDto, in which case only the DTO's fields are read from MongoDB.
+
+    // Keyset pagination over the (updateDate desc, _id desc) index.
+    // The first page has no cursor; every following page continues strictly after the last (updateDate, _id) seen.
+    @Query(value = "{ 'deletionDate': null }", sort = "{ 'updateDate': -1, '_id': -1 }")
+    <T> List<T> findFirstPage(Limit limit, Class<T> type);
+
+    @Query(value = "{ 'deletionDate': null, '$or': [ { 'updateDate': { '$lt': ?0 } }, { 'updateDate': ?0, '_id': { '$lt': ?1 } } ] }",
+            sort = "{ 'updateDate': -1, '_id': -1 }")
+    <T> List<T> findPageAfter(LocalDateTime updateDate, ObjectId id, Limit limit, Class<T> type);
+
+    // Owner-scoped variants over the (userId, updateDate desc, _id desc) index.
+    @Query(value = "{ 'userId': ?0, 'deletionDate': null }", sort = "{ 'updateDate': -1, '_id': -1 }")
+    <T> List<T> findFirstPageByUserId(String userId, Limit limit, Class<T> type);
+
+    @Query(value = "{ 'userId': ?0, 'deletionDate': null, '$or': [ { 'updateDate': { '$lt': ?1 } }, { 'updateDate': ?1, '_id': { '$lt': ?2 } } ] }",
+            sort = "{ 'updateDate': -1, '_id': -1 }")
+    <T> List<T> findPageByUserIdAfter(String userId, LocalDateTime updateDate, ObjectId id, Limit limit, Class<T> type);
+
+    // Ingredient filter over the multikey (ingredientNames, updateDate desc, _id desc) index; every name must match.
+    @Query(value = "{ 'ingredientNames': { '$all': ?0 }, 'deletionDate': null }", sort = "{ 'updateDate': -1, '_id': -1 }")
+    <T> List<T> findFirstPageByIngredientNames(Collection<String> names, Limit limit, Class<T> type);
+
+    @Query(value = "{ 'ingredientNames': { '$all': ?0 }, 'deletionDate': null, '$or': [ { 'updateDate': { '$lt': ?1 } }, { 'updateDate': ?1, '_id': { '$lt': ?2 } } ] }",
+            sort = "{ 'updateDate': -1, '_id': -1 }")
+    <T> List<T> findPageByIngredientNamesAfter(Collection<String> names, LocalDateTime updateDate, ObjectId id, Limit limit, Class<T> type);
+
+    <T> List<T> findByIdInAndDeletionDateIsNull(Collection<String> ids, Class<T> type);
+
+    <T> Optional<T> findProjectedByIdAndDeletionDateIsNull(String id, Class<T> type);
+
+    Optional<Recipe> findByIdAndDeletionDateIsNull(String id);
 }
@@ -0,0 +1,213 @@
+package backend.recimeclone.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PushbackReader;
+import java.io.Reader;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Finds the schema.org Recipe in an HTML page without building a DOM.
+ * <p>
+ * The page is scanned as a character stream for {@code <script type="application/ld+json">}
+ * elements; comments and the content of other scripts are skipped the way a browser would. Each
+ * JSON-LD block is read with Jackson's streaming parser straight from the page: a node, an array
+ * of nodes, or a {@code @graph}, where only nodes are built as trees, one at a time. Reading stops
+ * at the first Recipe with a name, so the rest of the page is never scanned.
+ */
+final class JsonLdRecipeReader {
+
+    private static final Pattern JSON_LD_TYPE = Pattern.compile("\\btype\\s*=\\s*[\"']?\\s*application/ld\\+json", Pattern.CASE_INSENSITIVE);
+    private static final int MAX_TAG_LENGTH = 4096;
+
+    private final ObjectMapper objectMapper;
+
+    JsonLdRecipeReader(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /** True if the node's {@code @type} is Recipe, or an array that includes it. */
+    static boolean isRecipe(JsonNode node) {
+        JsonNode type = node.path("@type");
+        if (type.isArray()) {
+            for (JsonNode entry : type) {
+                if ("Recipe".equals(entry.asText())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return "Recipe".equals(type.asText());
+    }
+
+    /**
+     * Returns the first Recipe node with a name in the page's JSON-LD, or null if there is none.
+     * Malformed JSON-LD blocks are skipped.
+     */
+    JsonNode firstRecipe(Reader html) throws IOException {
+        PushbackReader in = new PushbackReader(new BufferedReader(html), 16); // room for the longest lookahead
+        int c;
+        while ((c = in.read()) != -1) {
+            if (c != '<') {
+                continue;
+            }
+            if (matches(in, "!--", false)) {
+                skipPast(in, "-->");
+            } else if (matches(in, "script", true)) {
+                String attributes = readTag(in);
+                Reader content = new ScriptContent(in);
+                if (attributes != null && JSON_LD_TYPE.matcher(attributes).find()) {
+                    JsonNode recipe = readBlock(content);
+                    if (recipe != null) {
+                        return recipe;
+                    }
+                }
+                content.skip(Long.MAX_VALUE);
+            }
+        }
+        return null;
+    }
+
+    private JsonNode readBlock(Reader content) {
+        try (JsonParser parser = objectMapper.getFactory().createParser(content)) {
+            return readValue(parser, parser.nextToken());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private JsonNode readValue(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.START_ARRAY) {
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+                JsonNode recipe = readValue(parser, token);
+                if (recipe != null) {
+                    return recipe;
+                }
+            }
+            return null;
+        }
+        if (token == JsonToken.START_OBJECT) {
+            return readObject(parser);
+        }
+        return null;
+    }
+
+    /** Reads an object field by field, so the nodes of a {@code @graph} are read one at a time. */
+    private JsonNode readObject(JsonParser parser) throws IOException {
+        ObjectNode node = objectMapper.createObjectNode();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("@graph".equals(name) && value == JsonToken.START_ARRAY) {
+                JsonNode recipe = readValue(parser, value);
+                if (recipe != null) {
+                    return recipe;
+                }
+            } else {
+                node.set(name, parser.readValueAsTree());
+            }
+        }
+        return isRecipe(node) && !node.path("name").asText().isBlank() ? node : null;
+    }
+
+    /**
+     * Consumes the text if it comes next, ignoring case, and for a tag name only if the name ends
+     * there; otherwise consumes nothing.
+     */
+    private static boolean matches(PushbackReader in, String text, boolean tagName) throws IOException {
+        char[] read = new char[text.length()];
+        int count = 0;
+        boolean matched = true;
+        while (matched && count < read.length) {
+            int c = in.read();
+            if (c == -1) {
+                matched = false;
+            } else {
+                read[count++] = (char) c;
+                matched = Character.toLowerCase((char) c) == text.charAt(count - 1);
+            }
+        }
+        if (matched && tagName) {
+            matched = isTagEnd(peek(in));
+        }
+        if (!matched) {
+            in.unread(read, 0, count);
+        }
+        return matched;
+    }
+
+    private static int peek(PushbackReader in) throws IOException {
+        int c = in.read();
+        if (c != -1) {
+            in.unread(c);
+        }
+        return c;
+    }
+
+    private static boolean isTagEnd(int c) {
+        return c == '>' || c == '/' || Character.isWhitespace(c);
+    }
+
+    /** Reads the rest of a start tag up to and including its '>', returning the attributes, or null if overlong. */
+    private static String readTag(PushbackReader in) throws IOException {
+        StringBuilder attributes = new StringBuilder();
+        int c;
+        while ((c = in.read()) != -1 && c != '>') {
+            if (attributes.length() < MAX_TAG_LENGTH) {
+                attributes.append((char) c);
+            }
+        }
+        return attributes.length() < MAX_TAG_LENGTH ? attributes.toString().toLowerCase(Locale.ROOT) : null;
+    }
+
+    private static void skipPast(PushbackReader in, String end) throws IOException {
+        int c;
+        while ((c = in.read()) != -1) {
+            if (c == end.charAt(0) && matches(in, end.substring(1), false)) {
+                return;
+            }
+        }
+    }
+
+    /** The raw text of a script element: ends before its {@code </script}, which it consumes. */
+    private static final class ScriptContent extends Reader {
+        private final PushbackReader in;
+        private boolean ended;
+
+        ScriptContent(PushbackReader in) {
+            this.in = in;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            if (ended) {
+                return -1;
+            }
+            int count = 0;
+            while (count < length) {
+                int c = in.read();
+                if (c == -1 || (c == '<' && matches(in, "/script", true))) {
+                    ended = true;
+                    if (c != -1) {
+                        readTag(in);
+                    }
+                    break;
+                }
+                buffer[offset + count++] = (char) c;
+            }
+            return count == 0 && ended ? -1 : count;
+        }
+
+        @Override
+        public void close() {
+            // The page reader stays open; the scan continues after this script
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package backend.recimeclone.service;
+
+import backend.recimeclone.dtos.BatchItemResultDto;
+import backend.recimeclone.dtos.RecipeBatchUpdateDto;
+import backend.recimeclone.dtos.RecipeRequestDto;
+import backend.recimeclone.models.Recipe;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Creates, updates and deletes many recipes at once.
+ * <p>
+ * Every item is validated on its own, ownership of all referenced recipes is checked with a
+ * single {@code $in} query, and all accepted items go to MongoDB as one unordered bulk write.
+ * A failure of one item never fails the others; each gets its own {@link BatchItemResultDto}.
+ */
+@Service
+@RequiredArgsConstructor
+public class RecipeBatchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecipeBatchService.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /** A bulk write model together with the request item it came from. */
+    private record PendingWrite(int index, String id, Recipe previous, Recipe current) {}
+
+    public List<BatchItemResultDto> createAll(String userId, List<RecipeRequestDto> requests) {
+        BatchItemResultDto[] results = new BatchItemResultDto[requests.size()];
+        List<PendingWrite> writes = new ArrayList<>();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Recipe.class);
+
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < requests.size(); i++) {
+            String error = requests.get(i).violations(validator);
+            if (error != null) {
+                results[i] = BatchItemResultDto.failure(i, null, HttpStatus.BAD_REQUEST.value(), error);
+                continue;
+            }
+            Recipe recipe = new Recipe();
+            recipe.setId(new ObjectId().toHexString()); // Assigned up front so results can report it
+            recipe.setUserId(userId);
+            requests.get(i).applyTo(recipe);
+            recipe.setCreationDate(now);
+            recipe.setUpdateDate(now);
+            bulk.insert(recipe);
+            writes.add(new PendingWrite(i, recipe.getId(), null, recipe));
+        }
+
+        execute(bulk, writes, results, HttpStatus.CREATED, null);
+        logger.info("Batch create by user {}: {} of {} recipes written", userId, countSuccesses(results), requests.size());
+        return List.of(results);
+    }
+
+    public List<BatchItemResultDto> updateAll(String userId, List<RecipeBatchUpdateDto> requests) {
+        BatchItemResultDto[] results = new BatchItemResultDto[requests.size()];
+        Map<String, Recipe> existing = findAllById(requests.stream().map(RecipeBatchUpdateDto::id).toList());
+        List<PendingWrite> writes = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Recipe.class);
+
+        LocalDateTime now = writeStamp();
+        for (int i = 0; i < requests.size(); i++) {
+            RecipeBatchUpdateDto request = requests.get(i);
+            String error = request.recipe() == null ? "Recipe is required" : request.recipe().violations(validator);
+            BatchItemResultDto rejected = checkAccess(i, request.id(), userId, existing, seen);
+            if (rejected != null) {
+                results[i] = rejected;
+                continue;
+            }
+            if (error != null) {
+                results[i] = BatchItemResultDto.failure(i, request.id(), HttpStatus.BAD_REQUEST.value(), error);
+                continue;
+            }
+            Recipe previous = existing.get(request.id());
+            Recipe updated = previous.toBuilder().build();
+            request.recipe().applyTo(updated);
+            updated.setUpdateDate(now);
+            updated.setVersion(previous.getVersion() + 1);
+            RecipeDerivedFields.applyTo(updated);
+            bulk.updateOne(RecipeWriteService.ownedBy(request.id(), userId), RecipeWriteService.editableFields(updated));
+            writes.add(new PendingWrite(i, request.id(), previous, updated));
+        }
+
+        execute(bulk, writes, results, HttpStatus.OK, now);
+        logger.info("Batch update by user {}: {} of {} recipes written", userId, countSuccesses(results), requests.size());
+        return List.of(results);
+    }
+
+    public List<BatchItemResultDto> deleteAll(String userId, List<String> ids) {
+        BatchItemResultDto[] results = new BatchItemResultDto[ids.size()];
+        Map<String, Recipe> existing = findAllById(ids);
+        List<PendingWrite> writes = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Recipe.class);
+
+        LocalDateTime now = writeStamp();
+        Update softDelete = RecipeWriteService.softDelete(now);
+        for (int i = 0; i < ids.size(); i++) {
+            BatchItemResultDto rejected = checkAccess(i, ids.get(i), userId, existing, seen);
+            if (rejected != null) {
+                results[i] = rejected;
+                continue;
+            }
+            bulk.updateOne(RecipeWriteService.ownedBy(ids.get(i), userId), softDelete);
+            writes.add(new PendingWrite(i, ids.get(i), existing.get(ids.get(i)), null));
+        }
+
+        execute(bulk, writes, results, HttpStatus.NO_CONTENT, now);
+        logger.info("Batch delete by user {}: {} of {} recipes soft-deleted", userId, countSuccesses(results), ids.size());
+        return List.of(results);
+    }
+
+    /** The single ownership query: every referenced recipe, fetched with one $in. */
+    private Map<String, Recipe> findAllById(Collection<String> ids) {
+        List<String> validIds = ids.stream().filter(id -> id != null && ObjectId.isValid(id)).distinct().toList();
+        if (validIds.isEmpty()) {
+            return Map.of();
+        }
+        Query query = Query.query(Criteria.where("id").in(validIds).and("deletionDate").is(null));
+        return mongoTemplate.find(query, Recipe.class).stream()
+                .collect(Collectors.toMap(Recipe::getId, recipe -> recipe));
+    }
+
+    private static BatchItemResultDto checkAccess(int index, String id, String userId,
+                                                  Map<String, Recipe> existing, Set<String> seen) {
+        Recipe recipe = id == null ? null : existing.get(id);
+        if (recipe == null) {
+            return BatchItemResultDto.failure(index, id, HttpStatus.NOT_FOUND.value(), "Recipe not found");
+        }
+        if (!userId.equals(recipe.getUserId())) {
+            return BatchItemResultDto.failure(index, id, HttpStatus.FORBIDDEN.value(), "Recipe belongs to another user");
+        }
+        if (!seen.add(id)) {
+            return BatchItemResultDto.failure(index, id, HttpStatus.BAD_REQUEST.value(), "Duplicate id in batch");
+        }
+        return null;
+    }
+
+    /**
+     * The updateDate stamped by an update or soft delete batch, at the millisecond precision
+     * MongoDB stores, so {@link #findMissed} can tell from a re-read whether the write landed.
+     */
+    private static LocalDateTime writeStamp() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+    }
+
+    /**
+     * Runs the bulk write and fills in the results of the items that were sent. Items the
+     * server rejected are reported individually; the rest are reported as {@code successStatus}
+     * and announced with a {@link RecipeChangedEvent}.
+     * <p>
+     * Updates are filtered by {@link RecipeWriteService#ownedBy}, so one can match nothing when
+     * the recipe was deleted or changed hands after the ownership check. When the matched count
+     * says so, the ids are re-read and the writes that did not land are reported as 404 or 409
+     * instead, without an event.
+     * @param stamp The updateDate the update operations set, or null for inserts.
+     */
+    private void execute(BulkOperations bulk, List<PendingWrite> writes, BatchItemResultDto[] results,
+                         HttpStatus successStatus, LocalDateTime stamp) {
+        if (writes.isEmpty()) {
+            return;
+        }
+        Map<Integer, String> failures = new HashMap<>();
+        BulkWriteResult result;
+        try {
+            result = bulk.execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                failures.put(error.getIndex(), error.getMessage());
+            }
+            result = e.getResult();
+            logger.warn("Batch write partially failed: {} of {} operations rejected", failures.size(), writes.size());
+        }
+
+        Map<String, HttpStatus> missed = Map.of();
+        if (stamp != null && result.getMatchedCount() < writes.size() - failures.size()) {
+            List<String> applied = new ArrayList<>();
+            for (int op = 0; op < writes.size(); op++) {
+                if (!failures.containsKey(op)) {
+                    applied.add(writes.get(op).id());
+                }
+            }
+            missed = findMissed(applied, stamp);
+            logger.warn("Batch write matched {} of {} recipes after the ownership check", applied.size() - missed.size(), applied.size());
+        }
+
+        for (int op = 0; op < writes.size(); op++) {
+            PendingWrite write = writes.get(op);
+            String failure = failures.get(op);
+            if (failure != null) {
+                results[write.index()] = BatchItemResultDto.failure(write.index(), write.id(),
+                        HttpStatus.INTERNAL_SERVER_ERROR.value(), failure);
+                continue;
+            }
+            HttpStatus miss = missed.get(write.id());
+            if (miss != null) {
+                results[write.index()] = BatchItemResultDto.failure(write.index(), write.id(), miss.value(),
+                        miss == HttpStatus.NOT_FOUND ? "Recipe not found" : "Recipe was changed concurrently");
+                continue;
+            }
+            results[write.index()] = BatchItemResultDto.success(write.index(), write.id(), successStatus.value());
+            eventPublisher.publishEvent(new RecipeChangedEvent(write.previous(), write.current()));
+        }
+    }
+
+    /**
+     * The recipes among {@code ids} that do not carry {@code stamp}, i.e. whose write matched
+     * nothing: 404 if they are gone or were deleted meanwhile, 409 if they are live but no
+     * longer matched the owner filter.
+     */
+    private Map<String, HttpStatus> findMissed(List<String> ids, LocalDateTime stamp) {
+        Query query = Query.query(Criteria.where("id").in(ids));
+        query.fields().include("userId", "updateDate", "deletionDate");
+        Map<String, Recipe> found = mongoTemplate.find(query, Recipe.class).stream()
+                .collect(Collectors.toMap(Recipe::getId, recipe -> recipe));
+        Map<String, HttpStatus> missed = new HashMap<>();
+        for (String id : ids) {
+            Recipe recipe = found.get(id);
+            if (recipe != null && stamp.equals(recipe.getUpdateDate())) {
+                continue;
+            }
+            missed.put(id, recipe == null || recipe.getDeletionDate() != null ? HttpStatus.NOT_FOUND : HttpStatus.CONFLICT);
+        }
+        return missed;
+    }
+
+    private static long countSuccesses(BatchItemResultDto[] results) {
+        long count = 0;
+        for (BatchItemResultDto result : results) {
+            if (result.error() == null) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
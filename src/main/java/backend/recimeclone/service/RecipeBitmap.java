@@ -0,0 +1,188 @@
+package backend.recimeclone.service;
+
+import java.util.Arrays;
+
+/**
+ * Compressed set of recipe ordinals, laid out like a Roaring bitmap.
+ * <p>
+ * Ordinals are split into chunks of {@link #CHUNK_SIZE}; each non-empty chunk holds either a
+ * sorted array of the low bits (sparse chunks) or a plain bitmap of {@code CHUNK_SIZE} bits
+ * (dense chunks), whichever is smaller. Chunks are indexed directly by their number because
+ * ordinals are kept compact by their owner.
+ * <p>
+ * Chunks are smaller than Roaring's 2^16 so a few hundred thousand recipes still split into
+ * enough chunks to score in parallel. Not thread-safe.
+ */
+final class RecipeBitmap {
+
+    static final int CHUNK_BITS = 12;
+    static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int LOW_MASK = CHUNK_SIZE - 1;
+    private static final int WORDS = CHUNK_SIZE / Long.SIZE;
+    // An array of 16-bit values is smaller than the bitmap up to this many entries
+    private static final int ARRAY_MAX = CHUNK_SIZE / Character.SIZE;
+
+    private static final class ArrayChunk {
+        char[] values = new char[4];
+        int size;
+    }
+
+    private static final class BitmapChunk {
+        final long[] words = new long[WORDS];
+        int cardinality;
+    }
+
+    private Object[] chunks = new Object[1]; // null, ArrayChunk or BitmapChunk
+    private int cardinality;
+
+    static int chunkOf(int ordinal) {
+        return ordinal >>> CHUNK_BITS;
+    }
+
+    int cardinality() {
+        return cardinality;
+    }
+
+    /** One more than the highest chunk that may hold members. */
+    int chunkCount() {
+        return chunks.length;
+    }
+
+    boolean hasChunk(int chunk) {
+        return chunk < chunks.length && chunks[chunk] != null;
+    }
+
+    boolean contains(int ordinal) {
+        int chunk = chunkOf(ordinal);
+        if (!hasChunk(chunk)) {
+            return false;
+        }
+        char low = (char) (ordinal & LOW_MASK);
+        if (chunks[chunk] instanceof ArrayChunk array) {
+            return Arrays.binarySearch(array.values, 0, array.size, low) >= 0;
+        }
+        return (((BitmapChunk) chunks[chunk]).words[low >>> 6] & (1L << low)) != 0;
+    }
+
+    void add(int ordinal) {
+        int chunk = chunkOf(ordinal);
+        if (chunk >= chunks.length) {
+            chunks = Arrays.copyOf(chunks, Math.max(chunk + 1, chunks.length * 2));
+        }
+        char low = (char) (ordinal & LOW_MASK);
+        Object container = chunks[chunk];
+        if (container == null) {
+            container = new ArrayChunk();
+            chunks[chunk] = container;
+        }
+
+        if (container instanceof ArrayChunk array) {
+            int at = Arrays.binarySearch(array.values, 0, array.size, low);
+            if (at >= 0) {
+                return;
+            }
+            if (array.size == ARRAY_MAX) {
+                BitmapChunk bitmap = toBitmap(array);
+                setBit(bitmap, low);
+                chunks[chunk] = bitmap;
+            } else {
+                int insertAt = -at - 1;
+                if (array.size == array.values.length) {
+                    array.values = Arrays.copyOf(array.values, Math.min(ARRAY_MAX, array.size * 2));
+                }
+                System.arraycopy(array.values, insertAt, array.values, insertAt + 1, array.size - insertAt);
+                array.values[insertAt] = low;
+                array.size++;
+            }
+        } else {
+            BitmapChunk bitmap = (BitmapChunk) container;
+            if ((bitmap.words[low >>> 6] & (1L << low)) != 0) {
+                return;
+            }
+            setBit(bitmap, low);
+        }
+        cardinality++;
+    }
+
+    void remove(int ordinal) {
+        int chunk = chunkOf(ordinal);
+        if (!hasChunk(chunk)) {
+            return;
+        }
+        char low = (char) (ordinal & LOW_MASK);
+        if (chunks[chunk] instanceof ArrayChunk array) {
+            int at = Arrays.binarySearch(array.values, 0, array.size, low);
+            if (at < 0) {
+                return;
+            }
+            System.arraycopy(array.values, at + 1, array.values, at, array.size - at - 1);
+            array.size--;
+            if (array.size == 0) {
+                chunks[chunk] = null;
+            }
+        } else {
+            BitmapChunk bitmap = (BitmapChunk) chunks[chunk];
+            long bit = 1L << low;
+            if ((bitmap.words[low >>> 6] & bit) == 0) {
+                return;
+            }
+            bitmap.words[low >>> 6] &= ~bit;
+            bitmap.cardinality--;
+            // Convert back well below the threshold, so a chunk on the boundary does not flip on every write
+            if (bitmap.cardinality <= ARRAY_MAX / 2) {
+                chunks[chunk] = toArray(bitmap);
+            }
+        }
+        cardinality--;
+    }
+
+    /**
+     * Adds one to {@code counts[low]} for every member of the chunk, where low is the member's
+     * position within the chunk. Dense chunks are walked word by word, skipping empty words.
+     */
+    void countInto(int chunk, short[] counts) {
+        if (!hasChunk(chunk)) {
+            return;
+        }
+        if (chunks[chunk] instanceof ArrayChunk array) {
+            for (int i = 0; i < array.size; i++) {
+                counts[array.values[i]]++;
+            }
+            return;
+        }
+        long[] words = ((BitmapChunk) chunks[chunk]).words;
+        for (int w = 0; w < WORDS; w++) {
+            long word = words[w];
+            while (word != 0) {
+                counts[(w << 6) + Long.numberOfTrailingZeros(word)]++;
+                word &= word - 1;
+            }
+        }
+    }
+
+    private static void setBit(BitmapChunk bitmap, char low) {
+        bitmap.words[low >>> 6] |= 1L << low;
+        bitmap.cardinality++;
+    }
+
+    private static BitmapChunk toBitmap(ArrayChunk array) {
+        BitmapChunk bitmap = new BitmapChunk();
+        for (int i = 0; i < array.size; i++) {
+            setBit(bitmap, array.values[i]);
+        }
+        return bitmap;
+    }
+
+    private static ArrayChunk toArray(BitmapChunk bitmap) {
+        ArrayChunk array = new ArrayChunk();
+        array.values = new char[Math.max(4, bitmap.cardinality)];
+        for (int w = 0; w < WORDS; w++) {
+            long word = bitmap.words[w];
+            while (word != 0) {
+                array.values[array.size++] = (char) ((w << 6) + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+        return array;
+    }
+}
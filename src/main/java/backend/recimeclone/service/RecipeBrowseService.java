@@ -0,0 +1,140 @@
+package backend.recimeclone.service;
+
+import backend.recimeclone.dtos.CursorPageDto;
+import backend.recimeclone.dtos.RecipeBrowseCursor;
+import backend.recimeclone.models.Recipe;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Filtered and sorted recipe listings over the derived fields ("under 30 minutes, best rated first"),
+ * by community rating average (see {@link RecipeRatingBuffer}) or by trending score (see
+ * {@link RecipeEngagementService}). The owner's own rating is not a sort: it says nothing about
+ * how others like the recipe.
+ * <p>
+ * Each sort has its own partial index (see {@link Recipe}) that starts with the sort key and
+ * ends with the range-filtered fields. Pages are read with keyset pagination, hinted to that
+ * index and projected to index fields only, so the database answers them from the index
+ * without touching documents (a covered query) and without an in-memory sort. Callers load
+ * the recipes of the returned ids in one $in query.
+ */
+@Service
+@RequiredArgsConstructor
+public class RecipeBrowseService {
+
+    private final MongoTemplate mongoTemplate;
+
+    public enum BrowseSort {
+        RATING("rating", "ratingAverage", Sort.Direction.DESC, "browse_ratingAverage"),
+        TOTAL_TIME("totalTime", "totalTime", Sort.Direction.ASC, "browse_totalTime"),
+        TITLE("title", "sortTitle", Sort.Direction.ASC, "browse_sortTitle"),
+        TRENDING("trending", "trendingScore", Sort.Direction.DESC, "browse_trending");
+
+        private final String parameter;
+        private final String field;
+        private final Sort.Direction direction;
+        private final String index;
+
+        BrowseSort(String parameter, String field, Sort.Direction direction, String index) {
+            this.parameter = parameter;
+            this.field = field;
+            this.direction = direction;
+            this.index = index;
+        }
+
+        /** @throws IllegalArgumentException for an unknown sort name. */
+        public static BrowseSort of(String parameter) {
+            for (BrowseSort sort : values()) {
+                if (sort.parameter.equalsIgnoreCase(parameter)) {
+                    return sort;
+                }
+            }
+            throw new IllegalArgumentException("Unknown sort: " + parameter);
+        }
+
+        private Object parse(String value) {
+            return switch (this) {
+                case TITLE -> value;
+                case TOTAL_TIME -> Integer.valueOf(value);
+                // Recipes stored before the field existed, or never viewed or saved, have none and come last
+                case RATING, TRENDING -> "null".equals(value) ? null : Double.valueOf(value);
+            };
+        }
+    }
+
+    /**
+     * Range filters; null bounds are open.
+     * @param minTotalTime Minimum prepTime + cookTime in minutes.
+     * @param maxTotalTime Maximum prepTime + cookTime in minutes.
+     * @param maxIngredients Maximum number of ingredient lines.
+     */
+    public record Filter(Integer minTotalTime, Integer maxTotalTime, Integer maxIngredients) {}
+
+    /**
+     * Returns the ids of one page of matching recipes, in sort order, and the cursor of the next page.
+     * @throws IllegalArgumentException if the cursor cannot be decoded or belongs to another sort.
+     */
+    public CursorPageDto<String> browse(BrowseSort sort, Filter filter, String cursor, int pageSize) {
+        // The lower bound of 0 is also what lets the partial indexes be used
+        Criteria totalTime = Criteria.where("totalTime").gte(filter.minTotalTime() == null ? 0 : Math.max(0, filter.minTotalTime()));
+        if (filter.maxTotalTime() != null) {
+            totalTime = totalTime.lte(filter.maxTotalTime());
+        }
+        List<Criteria> criteria = new ArrayList<>();
+        criteria.add(totalTime);
+        if (filter.maxIngredients() != null) {
+            criteria.add(Criteria.where("ingredientCount").lte(filter.maxIngredients()));
+        }
+        if (cursor != null && !cursor.isBlank()) {
+            criteria.add(after(sort, cursor));
+        }
+
+        Query query = new Query(new Criteria().andOperator(criteria))
+                .with(Sort.by(sort.direction, sort.field).and(Sort.by(sort.direction, "_id")))
+                .withHint(sort.index)
+                .limit(pageSize + 1);
+        query.fields().include("_id", sort.field);
+
+        // Read as raw documents: field names are used as stored, and nothing else is read
+        List<Document> rows = mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(Recipe.class));
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            Document last = rows.get(pageSize - 1);
+            nextCursor = new RecipeBrowseCursor(sort.parameter, String.valueOf(last.get(sort.field)),
+                    last.getObjectId("_id")).encode();
+        }
+        List<String> ids = new ArrayList<>(rows.size());
+        for (Document row : rows) {
+            ids.add(row.getObjectId("_id").toHexString());
+        }
+        return new CursorPageDto<>(ids, nextCursor);
+    }
+
+    /** Strictly after (value, id) in the sort's direction. */
+    private static Criteria after(BrowseSort sort, String token) {
+        RecipeBrowseCursor cursor = RecipeBrowseCursor.decode(token);
+        if (!sort.parameter.equals(cursor.sort())) {
+            throw new IllegalArgumentException("Cursor belongs to another sort");
+        }
+        Object value = sort.parse(cursor.value());
+        ObjectId id = cursor.id();
+        if (sort.direction == Sort.Direction.DESC) {
+            return new Criteria().orOperator(
+                    Criteria.where(sort.field).lt(value),
+                    Criteria.where(sort.field).is(value).and("_id").lt(id));
+        }
+        return new Criteria().orOperator(
+                Criteria.where(sort.field).gt(value),
+                Criteria.where(sort.field).is(value).and("_id").gt(id));
+    }
+}
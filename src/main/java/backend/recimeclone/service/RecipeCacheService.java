@@ -0,0 +1,67 @@
+package backend.recimeclone.service;
+
+import backend.recimeclone.models.Recipe;
+import backend.recimeclone.repos.RecipeRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Bounded read-through cache in front of {@link RecipeRepository#findByIdAndDeletionDateIsNull}.
+ * <p>
+ * Caffeine's W-TinyLFU policy keeps the popular recipes resident, and loading through
+ * {@link Cache#get} means concurrent misses on the same id share a single database read.
+ * Entries are invalidated on every {@link RecipeChangedEvent} from this instance, and by
+ * {@link RecipeRatingBuffer} after it writes rating aggregates; changes made through other
+ * instances become visible once the entry expires.
+ * Hit, miss and eviction counts are published to Micrometer as {@code cache.*{cache=recipes}}.
+ * <p>
+ * Cached recipes are shared between requests and must be treated as read-only.
+ */
+@Service
+public class RecipeCacheService {
+
+    private final RecipeRepository recipeRepository;
+    private final Cache<String, Optional<Recipe>> cache;
+
+    public RecipeCacheService(RecipeRepository recipeRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${recipes.cache.maximum-size:10000}") long maximumSize,
+                              @Value("${recipes.cache.expire-after-write:60s}") Duration expireAfterWrite) {
+        this.recipeRepository = recipeRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "recipes");
+    }
+
+    /** Returns the recipe, loading it from the database on a miss. Missing ids are cached too. */
+    public Optional<Recipe> findById(String id) {
+        return cache.get(id, recipeRepository::findByIdAndDeletionDateIsNull);
+    }
+
+    /** Returns the cached recipe without touching the database, or empty if it is not cached. */
+    public Optional<Recipe> peek(String id) {
+        Optional<Recipe> cached = cache.getIfPresent(id);
+        return cached != null ? cached : Optional.empty();
+    }
+
+    /** Drops the cached recipe, for writes that change a recipe without a {@link RecipeChangedEvent}. */
+    public void invalidate(String id) {
+        cache.invalidate(id);
+    }
+
+    @EventListener
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        cache.invalidate(event.recipeId());
+    }
+}
@@ -0,0 +1,76 @@
+package backend.recimeclone.service;
+
+import backend.recimeclone.models.Recipe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+/**
+ * Brings writes made by other instances into this one's in-memory structures.
+ * <p>
+ * {@link RecipeChangedEvent}s are only published on the instance that made the write, so with
+ * several replicas the search, facet, pantry and suggest indexes (and the recipe cache) would
+ * each miss the others' changes. Every recipes.change-feed.interval this reads the recipes
+ * whose updateDate is after the previous poll, over the (updateDate, _id) index, and publishes
+ * an event for each: a deletion for a tombstone, otherwise the recipe's current state. Every
+ * write to an indexed field stamps updateDate, soft deletes included.
+ * <p>
+ * updateDate comes from the writing instance's clock before the write commits, so each poll
+ * reaches back recipes.change-feed.overlap before the start of the previous one. Recipes in
+ * that window are published again, as are this instance's own writes; listeners apply the
+ * current state of a recipe, so that is harmless, and it also repairs a local event that raced
+ * with a poll reading the older state. A failed poll is retried from the same point.
+ */
+@Service
+public class RecipeChangeFeed {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecipeChangeFeed.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration overlap;
+    private LocalDateTime since; // Only touched by the scheduler thread
+
+    public RecipeChangeFeed(MongoTemplate mongoTemplate,
+                            ApplicationEventPublisher eventPublisher,
+                            @Value("${recipes.change-feed.overlap:10s}") Duration overlap) {
+        this.mongoTemplate = mongoTemplate;
+        this.eventPublisher = eventPublisher;
+        this.overlap = overlap;
+        // Before the indexes start their initial rebuild, so no change falls between the two
+        this.since = LocalDateTime.now().minus(overlap);
+    }
+
+    @Scheduled(fixedDelayString = "${recipes.change-feed.interval:5s}",
+            initialDelayString = "${recipes.change-feed.interval:5s}")
+    public void poll() {
+        LocalDateTime started = LocalDateTime.now();
+        Query query = new Query(Criteria.where("updateDate").gt(since))
+                .with(Sort.by(Sort.Direction.ASC, "updateDate", "id"));
+        long published = 0;
+        try (Stream<Recipe> changes = mongoTemplate.stream(query, Recipe.class)) {
+            for (Recipe recipe : (Iterable<Recipe>) changes::iterator) {
+                eventPublisher.publishEvent(recipe.getDeletionDate() != null
+                        ? RecipeChangedEvent.deleted(recipe)
+                        : new RecipeChangedEvent(null, recipe));
+                published++;
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Recipe change feed poll failed after {} changes; retrying from {}", published, since, e);
+            return;
+        }
+        since = started.minus(overlap);
+        logger.debug("Recipe change feed published {} changes", published);
+    }
+}
@@ -0,0 +1,30 @@
+package backend.recimeclone.service;
+
+import backend.recimeclone.models.Recipe;
+
+/**
+ * Published after a recipe has been written to or removed from the database, so in-memory
+ * structures derived from recipes can stay current without the write paths knowing about them.
+ * Writes made by other instances are published by {@link RecipeChangeFeed}.
+ * @param previous The recipe as it was before the change, or null for a newly created recipe or
+ *                 an update picked up by {@link RecipeChangeFeed}.
+ * @param current The recipe as it is now, or null if it was deleted.
+ */
+public record RecipeChangedEvent(Recipe previous, Recipe current) {
+
+    public static RecipeChangedEvent created(Recipe current) {
+        return new RecipeChangedEvent(null, current);
+    }
+
+    public static RecipeChangedEvent updated(Recipe previous, Recipe current) {
+        return new RecipeChangedEvent(previous, current);
+    }
+
+    public static RecipeChangedEvent deleted(Recipe previous) {
+        return new RecipeChangedEvent(previous, null);
+    }
+
+    public String recipeId() {
+        return current != null ? current.getId() : previous.getId();
+    }
+}
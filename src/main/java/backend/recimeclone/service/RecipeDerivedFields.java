@@ -0,0 +1,32 @@
+package backend.recimeclone.service;
+
+import backend.recimeclone.models.Recipe;
+
+import java.util.Locale;
+
+/**
+ * Fields stored on a recipe only so they can be indexed, all computed from client-editable
+ * fields: the parsed ingredients, total time, ingredient count and sort title.
+ */
+public final class RecipeDerivedFields {
+
+    private RecipeDerivedFields() {
+    }
+
+    /** Recomputes every derived field from the recipe's own fields. */
+    public static void applyTo(Recipe recipe) {
+        RecipeIngredientParser.applyTo(recipe);
+        recipe.setTotalTime(recipe.getPrepTime() + recipe.getCookTime());
+        recipe.setIngredientCount(ingredientCount(recipe));
+        recipe.setSortTitle(sortTitle(recipe.getTitle()));
+    }
+
+    static int ingredientCount(Recipe recipe) {
+        return recipe.getIngredients() == null ? 0 : recipe.getIngredients().size();
+    }
+
+    /** Case-insensitive sort key; computed here rather than with $toLower, which only handles ASCII. */
+    static String sortTitle(String title) {
+        return title == null ? "" : title.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,107 @@
+package backend.recimeclone.service;
+
+import backend.recimeclone.models.Recipe;
+import com.mongodb.bulk.BulkWriteResult;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Computes the {@link RecipeDerivedFields} of recipes written before those fields existed.
+ * <p>
+ * Runs once in the background after startup. Live recipes without totalTime (every derived
+ * field is written together with it) are read from a cursor in batches, with only the fields
+ * the derivation needs; each batch is computed in parallel and written back as one unordered
+ * bulk of $set updates. Every update is guarded by {@code totalTime: {$exists: false}}, so a
+ * concurrent edit, which already stores the derived fields, is never overwritten, and running
+ * on several instances at once is harmless.
+ */
+@Service
+@RequiredArgsConstructor
+public class RecipeDerivedFieldsBackfillService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecipeDerivedFieldsBackfillService.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${recipes.derived-fields.backfill.enabled:true}")
+    private boolean enabled;
+
+    @Value("${recipes.derived-fields.backfill.batch-size:1000}")
+    private int batchSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillInBackground() {
+        if (!enabled) {
+            return;
+        }
+        Thread backfill = new Thread(this::backfill, "recipe-derived-fields-backfill");
+        backfill.setDaemon(true);
+        backfill.start();
+    }
+
+    /** @return The number of recipes updated. */
+    public long backfill() {
+        long started = System.currentTimeMillis();
+        long updated = 0;
+        try {
+            Query query = new Query(Criteria.where("totalTime").exists(false).and("deletionDate").is(null));
+            query.fields().include("title", "ingredients", "prepTime", "cookTime");
+            query.cursorBatchSize(batchSize);
+
+            List<Recipe> batch = new ArrayList<>(batchSize);
+            try (Stream<Recipe> recipes = mongoTemplate.stream(query, Recipe.class)) {
+                for (Recipe recipe : (Iterable<Recipe>) recipes::iterator) {
+                    batch.add(recipe);
+                    if (batch.size() == batchSize) {
+                        updated += writeBatch(batch);
+                        batch.clear();
+                    }
+                }
+            }
+            updated += writeBatch(batch);
+        } catch (RuntimeException e) {
+            logger.error("Derived-field backfill stopped after {} recipes; it resumes on the next start", updated, e);
+            return updated;
+        }
+        if (updated > 0) {
+            logger.info("Derived-field backfill updated {} recipes in {} ms", updated, System.currentTimeMillis() - started);
+        }
+        return updated;
+    }
+
+    private long writeBatch(List<Recipe> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        batch.parallelStream().forEach(RecipeDerivedFields::applyTo);
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Recipe.class);
+        for (Recipe recipe : batch) {
+            bulk.updateOne(
+                    Query.query(Criteria.where("id").is(recipe.getId()).and("totalTime").exists(false)),
+                    new Update()
+                            .set("parsedIngredients", recipe.getParsedIngredients())
+                            .set("ingredientNames", recipe.getIngredientNames())
+                            .set("totalTime", recipe.getTotalTime())
+                            .set("ingredientCount", recipe.getIngredientCount())
+                            .set("sortTitle", recipe.getSortTitle())
+                            .inc("version", 1));
+        }
+        BulkWriteResult result = bulk.execute();
+        return result.getModifiedCount();
+    }
+}
@@ -0,0 +1,20 @@
+package backend.recimeclone.service;
+
+import backend.recimeclone.models.Recipe;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertCallback;
+import org.springframework.stereotype.Component;
+
+/**
+ * Computes the {@link RecipeDerivedFields} right before a recipe is converted for save or
+ * insert, so every whole-document write path (repository saves, scraper imports, bulk inserts)
+ * stores them. Partial $set updates add them in {@link RecipeWriteService}.
+ */
+@Component
+public class RecipeDerivedFieldsCallback implements BeforeConvertCallback<Recipe> {
+
+    @Override
+    public Recipe onBeforeConvert(Recipe recipe, String collection) {
+        RecipeDerivedFields.applyTo(recipe);
+        return recipe;
+    }
+}
@@ -0,0 +1,211 @@
+package backend.recimeclone.service;
+
+import backend.recimeclone.models.Recipe;
+import com.mongodb.client.result.UpdateResult;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.SetOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind view and save counters, and the time-decayed trending score they feed.
+ * <p>
+ * Recording an event only increments a {@link LongAdder} of the recipe, which spreads
+ * concurrent increments over cells, so a popular recipe's counter is not a contention point.
+ * Counters are drained on a schedule into one unordered bulk write with one update per recipe.
+ * <p>
+ * The trending score is the sum of event weights, each decayed by half every half-life since
+ * the event. Instead of decaying every stored score as time passes, new events are weighted up
+ * by {@code 2^(age of now / half-life)}, which gives the same order. To keep those weights
+ * finite, time is cut into generations of {@value #HALF_LIVES_PER_GENERATION} half-lives; a
+ * score is relative to the start of its trendingGeneration and is scaled down when the
+ * generation moves on, by the first flush in the new generation for all recipes at once,
+ * and by each update for the recipe it touches.
+ * <p>
+ * Counts not yet flushed are lost if the process dies; at most recipes.engagement.max-unflushed
+ * events, since reaching that many triggers an early flush.
+ */
+@Service
+@RequiredArgsConstructor
+public class RecipeEngagementService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecipeEngagementService.class);
+
+    static final int HALF_LIVES_PER_GENERATION = 256;
+    private static final Instant EPOCH = Instant.parse("2026-01-01T00:00:00Z");
+
+    private final MongoTemplate mongoTemplate;
+    private final TaskScheduler taskScheduler;
+
+    @Value("${recipes.trending.half-life:24h}")
+    private Duration halfLife;
+
+    // A save counts as this many views
+    @Value("${recipes.trending.save-weight:5}")
+    private double saveWeight;
+
+    @Value("${recipes.engagement.max-unflushed:10000}")
+    private long maxUnflushed;
+
+    private static final class Counters {
+        final LongAdder views = new LongAdder();
+        final LongAdder saves = new LongAdder();
+    }
+
+    private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+    private final LongAdder unflushed = new LongAdder();
+    private final AtomicBoolean earlyFlushScheduled = new AtomicBoolean();
+    private int rescaledGeneration = -1;
+
+    public void recordView(String recipeId) {
+        counters.computeIfAbsent(recipeId, id -> new Counters()).views.increment();
+        recorded();
+    }
+
+    public void recordSave(String recipeId) {
+        counters.computeIfAbsent(recipeId, id -> new Counters()).saves.increment();
+        recorded();
+    }
+
+    private void recorded() {
+        unflushed.increment();
+        if (unflushed.sum() >= maxUnflushed && earlyFlushScheduled.compareAndSet(false, true)) {
+            taskScheduler.schedule(this::flush, Instant.now());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${recipes.engagement.flush-interval:10s}",
+            initialDelayString = "${recipes.engagement.flush-interval:10s}")
+    @PreDestroy
+    public synchronized void flush() {
+        earlyFlushScheduled.set(false);
+        Instant now = Instant.now();
+        int generation = generationOf(now);
+        if (generation > rescaledGeneration) {
+            rescaleOlderGenerations(generation);
+        }
+
+        List<String> ids = new ArrayList<>();
+        List<long[]> deltas = new ArrayList<>(); // {views, saves}
+        for (Map.Entry<String, Counters> entry : counters.entrySet()) {
+            long views = entry.getValue().views.sumThenReset();
+            long saves = entry.getValue().saves.sumThenReset();
+            if (views == 0 && saves == 0) {
+                // Idle for a whole interval. An increment racing with this removal can be lost,
+                // which is within what the counters promise.
+                counters.remove(entry.getKey(), entry.getValue());
+                continue;
+            }
+            unflushed.add(-(views + saves));
+            ids.add(entry.getKey());
+            deltas.add(new long[]{views, saves});
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        double scale = Math.pow(2, sinceGenerationStart(now, generation));
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Recipe.class);
+        for (int i = 0; i < ids.size(); i++) {
+            long[] delta = deltas.get(i);
+            double trending = (delta[0] + saveWeight * delta[1]) * scale;
+            bulk.updateOne(Query.query(Criteria.where("id").is(ids.get(i)).and("deletionDate").is(null)),
+                    increment(delta[0], delta[1], trending, generation));
+        }
+        try {
+            bulk.execute();
+            logger.debug("Flushed engagement counters of {} recipes", ids.size());
+        } catch (BulkOperationException e) {
+            // Unordered: only the reported operations failed, so only their counts are put back
+            e.getErrors().forEach(error -> {
+                long[] delta = deltas.get(error.getIndex());
+                Counters retry = counters.computeIfAbsent(ids.get(error.getIndex()), id -> new Counters());
+                retry.views.add(delta[0]);
+                retry.saves.add(delta[1]);
+                unflushed.add(delta[0] + delta[1]);
+            });
+            logger.warn("Failed to flush engagement counters of {} of {} recipes; retrying on the next flush",
+                    e.getErrors().size(), ids.size());
+        } catch (RuntimeException e) {
+            // Unknown which updates were applied; dropping the counts is better than counting them twice
+            logger.error("Failed to flush engagement counters of {} recipes", ids.size(), e);
+        }
+    }
+
+    /**
+     * Counter increments and the trending score in one pipeline update, so the score is moved to
+     * the newer of the stored and the current generation in the same atomic write. The stored
+     * generation can only be newer when another instance's clock is ahead. None of these fields
+     * is in a response, so the version is left alone and cached entity tags stay valid.
+     */
+    private static AggregationUpdate increment(long views, long saves, double trending, int generation) {
+        Document stored = new Document("$ifNull", List.of("$trendingGeneration", generation));
+        Document target = new Document("$max", List.of(stored, generation));
+        AggregationExpression score = context -> new Document("$add", List.of(
+                new Document("$multiply", List.of(new Document("$ifNull", List.of("$trendingScore", 0.0)), scaleDown(target, stored))),
+                new Document("$multiply", List.of(trending, scaleDown(target, generation)))));
+        return AggregationUpdate.update().set(new SetOperation("viewCount", add("viewCount", views))
+                .set("saveCount", add("saveCount", saves))
+                .set("trendingScore", score)
+                .set("trendingGeneration", (AggregationExpression) context -> target));
+    }
+
+    /** Brings every score of an older generation to this one, so scores stay comparable. Idempotent. */
+    private void rescaleOlderGenerations(int generation) {
+        try {
+            AggregationExpression score = context -> new Document("$multiply",
+                    List.of("$trendingScore", scaleDown(generation, "$trendingGeneration")));
+            UpdateResult result = mongoTemplate.updateMulti(Query.query(Criteria.where("trendingGeneration").lt(generation)),
+                    AggregationUpdate.update().set(new SetOperation("trendingScore", score).set("trendingGeneration", generation)),
+                    Recipe.class);
+            rescaledGeneration = generation;
+            if (result.getModifiedCount() > 0) {
+                logger.info("Rescaled trending scores of {} recipes to generation {}", result.getModifiedCount(), generation);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Failed to rescale trending scores to generation {}; retrying on the next flush", generation, e);
+        }
+    }
+
+    /** {@code 2^(-HALF_LIVES_PER_GENERATION * (to - from))}. */
+    private static Document scaleDown(Object to, Object from) {
+        return new Document("$pow", List.of(2, new Document("$multiply", List.of(-HALF_LIVES_PER_GENERATION,
+                new Document("$subtract", List.of(to, from))))));
+    }
+
+    private static AggregationExpression add(String field, long delta) {
+        return context -> new Document("$add", List.of(new Document("$ifNull", List.of("$" + field, 0L)), delta));
+    }
+
+    private int generationOf(Instant time) {
+        return (int) (Duration.between(EPOCH, time).toMillis() / (halfLife.toMillis() * HALF_LIVES_PER_GENERATION));
+    }
+
+    /** Half-lives between the start of the generation and the given time. */
+    private double sinceGenerationStart(Instant time, int generation) {
+        double halfLives = (double) Duration.between(EPOCH, time).toMillis() / halfLife.toMillis();
+        return halfLives - (double) generation * HALF_LIVES_PER_GENERATION;
+    }
+}
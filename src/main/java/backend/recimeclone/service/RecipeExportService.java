@@ -0,0 +1,71 @@
+package backend.recimeclone.service;
+
+import backend.recimeclone.models.Recipe;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+/**
+ * Writes recipes as newline-delimited JSON straight from a Mongo cursor.
+ * Only one driver batch is held in memory at a time, so heap use does not grow with the export size.
+ */
+@Service
+@RequiredArgsConstructor
+public class RecipeExportService {
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${recipes.export.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * Streams every matching recipe to the given output, one JSON document per line.
+     * @param userId Only export recipes owned by this user; null for all users.
+     * @param updatedSince Only export recipes updated at or after this time; null for no lower bound.
+     * @return The number of recipes written.
+     */
+    public long exportNdjson(String userId, LocalDateTime updatedSince, OutputStream out) throws IOException {
+        Criteria criteria = Criteria.where("deletionDate").is(null);
+        if (userId != null) {
+            criteria = criteria.and("userId").is(userId);
+        }
+        if (updatedSince != null) {
+            criteria = criteria.and("updateDate").gte(updatedSince);
+        }
+
+        // Ascending (updateDate, _id) walks the same indexes the listings use, just in reverse
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "updateDate", "id"))
+                .cursorBatchSize(batchSize);
+
+        long count = 0;
+        try (Stream<Recipe> recipes = mongoTemplate.stream(query, Recipe.class);
+             SequenceWriter writer = objectMapper.writer()
+                     .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                     .withRootValueSeparator("\n")
+                     .writeValues(out)) {
+            for (Recipe recipe : (Iterable<Recipe>) recipes::iterator) {
+                writer.write(recipe);
+                count++;
+            }
+        }
+        if (count > 0) {
+            out.write('\n'); // The separator only goes between values; terminate the last line too
+        }
+        out.flush();
+        return count;
+    }
+}
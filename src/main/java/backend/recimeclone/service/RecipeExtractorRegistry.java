@@ -0,0 +1,103 @@
+package backend.recimeclone.service;
+
+import backend.recimeclone.configs.ScraperProfileProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Decides which extractors the scraper tries on a page, and in which order, by host.
+ * <p>
+ * The extractors are the JSON-LD reader ({@value #JSON_LD}), the site profiles configured under
+ * recipes.scraper.profiles, and the generic selectors for common recipe markup ("html"). For
+ * each host the registry remembers the extractor that last produced a complete recipe and puts
+ * it first, so a site seen before normally needs a single attempt. Otherwise the order is: that
+ * extractor, the profiles for the host, JSON-LD, then the generic selectors.
+ * <p>
+ * Every attempt is counted as {@code recipes.scraper.extractions{host, extractor, outcome}},
+ * with outcome "success" or "miss", from which the success rate per domain and extractor follows.
+ * Learned preferences are kept in memory for up to recipes.scraper.strategy.max-hosts hosts.
+ */
+@Service
+public class RecipeExtractorRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecipeExtractorRegistry.class);
+
+    static final String JSON_LD = "json-ld";
+
+    private final MeterRegistry meterRegistry;
+    private final ScraperHostTags hostTags;
+    private final Map<String, SelectorProfile> profiles = new LinkedHashMap<>();
+    private final Cache<String, String> preferred;
+
+    public RecipeExtractorRegistry(ScraperProfileProperties properties,
+                                   MeterRegistry meterRegistry,
+                                   ScraperHostTags hostTags,
+                                   @Value("${recipes.scraper.strategy.max-hosts:10000}") long maxHosts) {
+        this.meterRegistry = meterRegistry;
+        this.hostTags = hostTags;
+        profiles.put(SelectorProfile.GENERIC.name(), SelectorProfile.GENERIC);
+        properties.getProfiles().forEach((name, profile) -> {
+            SelectorProfile compiled = SelectorProfile.compile(name, profile);
+            profiles.put(compiled.name(), compiled);
+        });
+        this.preferred = Caffeine.newBuilder().maximumSize(maxHosts).build();
+        logger.info("Loaded {} scraper selector profiles", profiles.size() - 1);
+    }
+
+    /** The extractors to try on a page of the host, in order; each appears once. */
+    public List<String> candidates(String host) {
+        String key = normalize(host);
+        Set<String> order = new LinkedHashSet<>();
+        String learned = preferred.getIfPresent(key);
+        if (learned != null) {
+            order.add(learned);
+        }
+        for (SelectorProfile profile : profiles.values()) {
+            if (profile.appliesTo(key)) {
+                order.add(profile.name());
+            }
+        }
+        order.add(JSON_LD);
+        order.add(SelectorProfile.GENERIC.name());
+        return new ArrayList<>(order);
+    }
+
+    /** The compiled selectors of a selector-based extractor, or null for {@value #JSON_LD}. */
+    SelectorProfile profile(String extractor) {
+        return profiles.get(extractor);
+    }
+
+    /**
+     * Records the outcome of one attempt. A success makes the extractor the first candidate for the host.
+     * @param success True if the extractor produced a complete recipe.
+     */
+    public void record(String host, String extractor, boolean success) {
+        Counter.builder("recipes.scraper.extractions")
+                .tag("host", hostTags.tag(host))
+                .tag("extractor", extractor)
+                .tag("outcome", success ? "success" : "miss")
+                .register(meterRegistry)
+                .increment();
+        if (success) {
+            preferred.put(normalize(host), extractor);
+        }
+    }
+
+    private static String normalize(String host) {
+        return host != null ? host.toLowerCase(Locale.ROOT) : "";
+    }
+}
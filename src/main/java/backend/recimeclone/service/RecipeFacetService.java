@@ -0,0 +1,263 @@
+package backend.recimeclone.service;
+
+import backend.recimeclone.dtos.FacetCountDto;
+import backend.recimeclone.dtos.RecipeFacetsDto;
+import backend.recimeclone.models.Recipe;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Tag and category counts, kept incrementally from {@link RecipeChangedEvent}s instead of
+ * aggregating over the collection per request. Other instances' writes arrive through
+ * {@link RecipeChangeFeed}; an event carries the recipe's current state and the previous
+ * contribution is taken from this index, so applying the same state twice counts it once.
+ * <p>
+ * Values are normalized (trimmed, lower-cased) and dictionary-encoded to int ids, so each
+ * distinct tag string is held once and every recipe only keeps small int arrays. Counts are
+ * kept globally and per owner; counts for an arbitrary set of recipes (e.g. a search result)
+ * are summed from the per-recipe arrays.
+ */
+@Service
+@RequiredArgsConstructor
+public class RecipeFacetService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecipeFacetService.class);
+    private static final int[] EMPTY = new int[0];
+
+    private final MongoTemplate mongoTemplate;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private FacetState state = new FacetState();
+    private List<RecipeChangedEvent> pendingDuringRebuild; // non-null while a rebuild is running
+
+    /** String-to-id dictionary for one facet. Ids are never reused, so encoded arrays stay valid. */
+    private static final class Dictionary {
+        final Map<String, Integer> ids = new HashMap<>();
+        final List<String> values = new ArrayList<>();
+
+        int[] encode(List<String> raw) {
+            if (raw == null || raw.isEmpty()) {
+                return EMPTY;
+            }
+            int[] encoded = new int[raw.size()];
+            int size = 0;
+            for (String value : raw) {
+                if (value == null || value.isBlank()) {
+                    continue;
+                }
+                int id = ids.computeIfAbsent(value.trim().toLowerCase(Locale.ROOT), v -> {
+                    values.add(v);
+                    return values.size() - 1;
+                });
+                if (!contains(encoded, size, id)) {
+                    encoded[size++] = id;
+                }
+            }
+            return size == encoded.length ? encoded : Arrays.copyOf(encoded, size);
+        }
+
+        private static boolean contains(int[] array, int size, int value) {
+            for (int i = 0; i < size; i++) {
+                if (array[i] == value) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /** Per-id counters for one facet, growing with the dictionary. */
+    private static final class Counts {
+        int[] counts = new int[64];
+
+        void add(int[] ids, int delta) {
+            for (int id : ids) {
+                if (id >= counts.length) {
+                    counts = Arrays.copyOf(counts, Math.max(id + 1, counts.length * 2));
+                }
+                counts[id] += delta;
+            }
+        }
+    }
+
+    private record EncodedRecipe(String userId, int[] tags, int[] categories) {}
+
+    private record FacetCounts(Counts tags, Counts categories) {
+        FacetCounts() {
+            this(new Counts(), new Counts());
+        }
+
+        void add(EncodedRecipe recipe, int delta) {
+            tags.add(recipe.tags(), delta);
+            categories.add(recipe.categories(), delta);
+        }
+    }
+
+    private static final class FacetState {
+        final Dictionary tagDictionary = new Dictionary();
+        final Dictionary categoryDictionary = new Dictionary();
+        final Map<String, EncodedRecipe> recipes = new HashMap<>();
+        final FacetCounts totals = new FacetCounts();
+        final Map<String, FacetCounts> countsByUser = new HashMap<>();
+
+        void apply(RecipeChangedEvent event) {
+            String id = event.recipeId();
+            EncodedRecipe old = recipes.remove(id);
+            if (old != null) {
+                count(old, -1);
+            }
+            Recipe current = event.current();
+            if (current != null) {
+                EncodedRecipe encoded = new EncodedRecipe(current.getUserId(),
+                        tagDictionary.encode(current.getTags()),
+                        categoryDictionary.encode(current.getCategories()));
+                recipes.put(id, encoded);
+                count(encoded, 1);
+            }
+        }
+
+        private void count(EncodedRecipe recipe, int delta) {
+            totals.add(recipe, delta);
+            if (recipe.userId() != null) {
+                countsByUser.computeIfAbsent(recipe.userId(), u -> new FacetCounts()).add(recipe, delta);
+            }
+        }
+    }
+
+    /**
+     * Returns the most frequent tags and categories, across all recipes or for one owner.
+     * @param userId Only count this user's recipes; null for all recipes.
+     * @param limit Maximum number of values returned per facet.
+     */
+    public RecipeFacetsDto facets(String userId, int limit) {
+        lock.readLock().lock();
+        try {
+            FacetCounts counts = userId == null ? state.totals : state.countsByUser.get(userId);
+            if (counts == null) {
+                return new RecipeFacetsDto(List.of(), List.of());
+            }
+            return toDto(counts, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns tag and category counts over the given recipes only, e.g. the hits of a search.
+     * Unknown ids are ignored.
+     */
+    public RecipeFacetsDto facetsFor(Collection<String> recipeIds, int limit) {
+        lock.readLock().lock();
+        try {
+            FacetCounts counts = new FacetCounts();
+            for (String id : recipeIds) {
+                EncodedRecipe recipe = state.recipes.get(id);
+                if (recipe != null) {
+                    counts.add(recipe, 1);
+                }
+            }
+            return toDto(counts, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private RecipeFacetsDto toDto(FacetCounts counts, int limit) {
+        return new RecipeFacetsDto(
+                top(counts.tags().counts, state.tagDictionary, limit),
+                top(counts.categories().counts, state.categoryDictionary, limit));
+    }
+
+    private static List<FacetCountDto> top(int[] counts, Dictionary dictionary, int limit) {
+        List<FacetCountDto> result = new ArrayList<>();
+        for (int id = 0; id < counts.length && id < dictionary.values.size(); id++) {
+            if (counts[id] > 0) {
+                result.add(new FacetCountDto(dictionary.values.get(id), counts[id]));
+            }
+        }
+        result.sort((a, b) -> a.count() != b.count()
+                ? Integer.compare(b.count(), a.count())
+                : a.value().compareTo(b.value()));
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    @EventListener
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            state.apply(event);
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.add(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildInBackground() {
+        Thread rebuild = new Thread(this::rebuild, "recipe-facet-rebuild");
+        rebuild.setDaemon(true);
+        rebuild.start();
+    }
+
+    /** Recounts every facet from the database, then swaps the new counts in. */
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            if (pendingDuringRebuild != null) {
+                return;
+            }
+            pendingDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        FacetState rebuilt = new FacetState();
+        try {
+            Query query = new Query(Criteria.where("deletionDate").is(null));
+            query.fields().include("userId", "tags", "categories");
+            try (Stream<Recipe> recipes = mongoTemplate.stream(query, Recipe.class)) {
+                recipes.forEach(recipe -> rebuilt.apply(RecipeChangedEvent.created(recipe)));
+            }
+        } catch (RuntimeException e) {
+            logger.error("Facet rebuild failed; keeping the current counts", e);
+            lock.writeLock().lock();
+            try {
+                pendingDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            pendingDuringRebuild.forEach(rebuilt::apply);
+            pendingDuringRebuild = null;
+            state = rebuilt;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Facet counts rebuilt: {} recipes, {} tags, {} categories",
+                rebuilt.recipes.size(), rebuilt.tagDictionary.values.size(), rebuilt.categoryDictionary.values.size());
+    }
+}
@@ -0,0 +1,247 @@
+package backend.recimeclone.service;
+
+import backend.recimeclone.dtos.BatchItemResultDto;
+import backend.recimeclone.dtos.RecipeImportResultDto;
+import backend.recimeclone.dtos.RecipeRequestDto;
+import backend.recimeclone.models.Recipe;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.mongodb.bulk.BulkWriteError;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk import of recipes from a streamed request body.
+ * <p>
+ * The input is read with Jackson's streaming parser, one record at a time. It may be NDJSON (one
+ * recipe per line, e.g. the output of the export endpoint), a JSON array of recipes, or schema.org
+ * JSON-LD: Recipe nodes, arrays of them, or {@code @graph} documents. Records in our own format are
+ * bound to {@link RecipeRequestDto}; schema.org nodes are mapped like scraped pages, by
+ * {@link RecipeScraperService#extractRecipeFromJsonNode}. Either way they are validated like a
+ * create request.
+ * <p>
+ * Valid records are collected into chunks, and each full chunk is written with one unordered bulk
+ * insert before any more input is read. Memory use is bounded by the chunk size, and a slow
+ * database slows the upload down instead of letting records pile up.
+ */
+@Service
+@RequiredArgsConstructor
+public class RecipeImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecipeImportService.class);
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final RecipeScraperService scraperService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${recipes.import.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${recipes.import.max-records:100000}")
+    private int maxRecords;
+
+    /**
+     * Imports every recipe in the input for the given user.
+     * @return Counts and the first errors; recipes read before malformed input are still imported.
+     */
+    public RecipeImportResultDto importRecipes(String userId, InputStream in) {
+        Import state = new Import(userId);
+        String aborted = null;
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            JsonToken token;
+            while (!state.overLimit() && (token = parser.nextToken()) != null) {
+                readRoot(parser, token, state);
+            }
+            if (state.overLimit()) {
+                aborted = "Stopped after " + maxRecords + " records, the most one import may contain";
+            }
+        } catch (JsonProcessingException e) {
+            aborted = "Malformed input after record " + state.records + ": " + e.getOriginalMessage();
+        } catch (IOException e) {
+            aborted = "Could not read the input after record " + state.records;
+            logger.warn("Import by user {} stopped reading after {} records", userId, state.records, e);
+        }
+        state.flush();
+        logger.info("Import by user {}: {} recipes imported, {} rejected{}", userId, state.imported, state.rejected,
+                aborted == null ? "" : " (" + aborted + ")");
+        return new RecipeImportResultDto(state.imported, state.rejected, state.errors, aborted);
+    }
+
+    /** One root-level value: a record, an array of records or a JSON-LD document. */
+    private void readRoot(JsonParser parser, JsonToken token, Import state) throws IOException {
+        if (token == JsonToken.START_ARRAY) {
+            while (!state.overLimit() && parser.nextToken() != JsonToken.END_ARRAY) {
+                handle(parser.readValueAsTree(), state);
+            }
+        } else if (token == JsonToken.START_OBJECT) {
+            readObject(parser, state);
+        } else {
+            throw new JsonParseException(parser, "Expected a JSON object or array");
+        }
+    }
+
+    /**
+     * Reads a root object field by field, so that a {@code @graph} of thousands of nodes is
+     * streamed node by node rather than read into one tree.
+     */
+    private void readObject(JsonParser parser, Import state) throws IOException {
+        ObjectNode rest = objectMapper.createObjectNode();
+        boolean graph = false;
+        while (!state.overLimit() && parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("@graph".equals(name) && value == JsonToken.START_ARRAY) {
+                graph = true;
+                while (!state.overLimit() && parser.nextToken() != JsonToken.END_ARRAY) {
+                    handle(parser.readValueAsTree(), state);
+                }
+            } else {
+                rest.set(name, parser.readValueAsTree());
+            }
+        }
+        if (!graph && !state.overLimit()) {
+            handle(rest, state);
+        }
+    }
+
+    private void handle(JsonNode node, Import state) {
+        if (node.isObject() && node.path("@graph").isArray()) {
+            for (JsonNode child : node.path("@graph")) {
+                handle(child, state);
+            }
+            return;
+        }
+        if (node.isObject() && !JsonLdRecipeReader.isRecipe(node) && (node.has("@type") || node.has("@context"))) {
+            return; // Other JSON-LD nodes (WebPage, Person, ...) are not records
+        }
+        if (state.records >= maxRecords) {
+            // Only a record past the limit stops the import, so an input of exactly the limit is read to its end
+            state.overLimit = true;
+            return;
+        }
+        RecipeRequestDto request;
+        int index = state.records;
+        if (!node.isObject()) {
+            state.reject(index, "Expected a JSON object");
+            state.records++;
+            return;
+        }
+        if (JsonLdRecipeReader.isRecipe(node)) {
+            request = RecipeRequestDto.of(scraperService.extractRecipeFromJsonNode(node));
+        } else {
+            try {
+                request = objectMapper.treeToValue(node, RecipeRequestDto.class);
+            } catch (JsonProcessingException e) {
+                state.reject(index, "Invalid record: " + e.getOriginalMessage());
+                state.records++;
+                return;
+            }
+        }
+        state.records++;
+        String error = request.violations(validator);
+        if (error != null) {
+            state.reject(index, error);
+            return;
+        }
+        state.add(index, request);
+    }
+
+    /** Progress of one import and its current chunk. */
+    private final class Import {
+        final String userId;
+        final List<BatchItemResultDto> errors = new ArrayList<>();
+        final List<Recipe> chunk = new ArrayList<>();
+        final List<Integer> chunkIndexes = new ArrayList<>();
+        int records;
+        boolean overLimit; // A record past recipes.import.max-records was found
+        long imported;
+        long rejected;
+
+        Import(String userId) {
+            this.userId = userId;
+        }
+
+        boolean overLimit() {
+            return overLimit;
+        }
+
+        void reject(int index, String error) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(BatchItemResultDto.failure(index, null, HttpStatus.BAD_REQUEST.value(), error));
+            }
+        }
+
+        void add(int index, RecipeRequestDto request) {
+            LocalDateTime now = LocalDateTime.now();
+            Recipe recipe = new Recipe();
+            recipe.setId(new ObjectId().toHexString());
+            recipe.setUserId(userId);
+            request.applyTo(recipe);
+            recipe.setCreationDate(now);
+            recipe.setUpdateDate(now);
+            chunk.add(recipe);
+            chunkIndexes.add(index);
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        /** Writes the chunk and waits for it, which is what holds back reading further input. */
+        void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Recipe.class);
+            bulk.insert(chunk);
+            Set<Integer> failed = Set.of();
+            try {
+                bulk.execute();
+            } catch (BulkOperationException e) {
+                failed = e.getErrors().stream().map(BulkWriteError::getIndex).collect(Collectors.toSet());
+                for (BulkWriteError error : e.getErrors()) {
+                    rejected++;
+                    if (errors.size() < MAX_REPORTED_ERRORS) {
+                        errors.add(BatchItemResultDto.failure(chunkIndexes.get(error.getIndex()), null,
+                                HttpStatus.INTERNAL_SERVER_ERROR.value(), error.getMessage()));
+                    }
+                }
+            }
+            for (int i = 0; i < chunk.size(); i++) {
+                if (!failed.contains(i)) {
+                    imported++;
+                    eventPublisher.publishEvent(RecipeChangedEvent.created(chunk.get(i)));
+                }
+            }
+            chunk.clear();
+            chunkIndexes.clear();
+        }
+    }
+}
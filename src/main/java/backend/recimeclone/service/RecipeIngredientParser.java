@@ -0,0 +1,309 @@
+package backend.recimeclone.service;
+
+import backend.recimeclone.models.ParsedIngredient;
+import backend.recimeclone.models.Recipe;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Parses free-text ingredient lines ("500g chicken breast", "1 1/2 cups flour, sifted",
+ * "½ tsp salt") into quantity, canonical unit and normalized name.
+ * <p>
+ * A single left-to-right scan over the line with an index, no regular expressions; the only
+ * allocations are the result and the name words.
+ */
+public final class RecipeIngredientParser {
+
+    // Aliases (including plurals) to canonical unit
+    private static final Map<String, String> UNITS = Map.ofEntries(
+            Map.entry("g", "g"), Map.entry("gram", "g"), Map.entry("grams", "g"), Map.entry("gr", "g"),
+            Map.entry("kg", "kg"), Map.entry("kilogram", "kg"), Map.entry("kilograms", "kg"),
+            Map.entry("mg", "mg"),
+            Map.entry("ml", "ml"), Map.entry("milliliter", "ml"), Map.entry("milliliters", "ml"),
+            Map.entry("millilitre", "ml"), Map.entry("millilitres", "ml"),
+            Map.entry("l", "l"), Map.entry("liter", "l"), Map.entry("liters", "l"),
+            Map.entry("litre", "l"), Map.entry("litres", "l"),
+            Map.entry("tsp", "tsp"), Map.entry("tsps", "tsp"), Map.entry("teaspoon", "tsp"), Map.entry("teaspoons", "tsp"),
+            Map.entry("tbsp", "tbsp"), Map.entry("tbsps", "tbsp"), Map.entry("tbs", "tbsp"),
+            Map.entry("tablespoon", "tbsp"), Map.entry("tablespoons", "tbsp"),
+            Map.entry("cup", "cup"), Map.entry("cups", "cup"),
+            Map.entry("oz", "oz"), Map.entry("ounce", "oz"), Map.entry("ounces", "oz"),
+            Map.entry("lb", "lb"), Map.entry("lbs", "lb"), Map.entry("pound", "lb"), Map.entry("pounds", "lb"),
+            Map.entry("pinch", "pinch"), Map.entry("pinches", "pinch"),
+            Map.entry("dash", "dash"), Map.entry("dashes", "dash"),
+            Map.entry("clove", "clove"), Map.entry("cloves", "clove"),
+            Map.entry("can", "can"), Map.entry("cans", "can"), Map.entry("tin", "can"), Map.entry("tins", "can"),
+            Map.entry("slice", "slice"), Map.entry("slices", "slice"),
+            Map.entry("piece", "piece"), Map.entry("pieces", "piece"),
+            Map.entry("bunch", "bunch"), Map.entry("bunches", "bunch"),
+            Map.entry("handful", "handful"), Map.entry("handfuls", "handful"),
+            Map.entry("sprig", "sprig"), Map.entry("sprigs", "sprig"),
+            Map.entry("stick", "stick"), Map.entry("sticks", "stick"),
+            Map.entry("package", "package"), Map.entry("packages", "package"), Map.entry("pack", "package"));
+
+    // Size and preparation words that do not change what the ingredient is
+    private static final Set<String> DESCRIPTORS = Set.of(
+            "large", "small", "medium", "fresh", "freshly", "chopped", "diced", "minced", "sliced", "finely",
+            "roughly", "thinly", "coarsely", "grated", "peeled", "crushed", "beaten", "melted", "softened",
+            "boneless", "skinless", "optional", "about", "approximately", "heaped", "level", "of");
+
+    // Trailing phrases that describe usage, not the ingredient
+    private static final String[] TRAILERS = {" to taste", " for serving", " for garnish", " to serve", " as needed"};
+
+    private RecipeIngredientParser() {
+    }
+
+    /** Recomputes parsedIngredients and ingredientNames from the recipe's raw ingredient lines. */
+    public static void applyTo(Recipe recipe) {
+        List<ParsedIngredient> parsed = parseAll(recipe.getIngredients());
+        recipe.setParsedIngredients(parsed);
+        recipe.setIngredientNames(indexNames(parsed));
+    }
+
+    public static List<ParsedIngredient> parseAll(List<String> lines) {
+        if (lines == null) {
+            return List.of();
+        }
+        List<ParsedIngredient> parsed = new ArrayList<>(lines.size());
+        for (String line : lines) {
+            parsed.add(parse(line));
+        }
+        return parsed;
+    }
+
+    /**
+     * The values stored in the multikey-indexed ingredientNames field: every distinct full name
+     * plus each word of multi-word names, so "chicken" finds "chicken breast".
+     */
+    public static List<String> indexNames(List<ParsedIngredient> ingredients) {
+        Set<String> names = new LinkedHashSet<>();
+        for (ParsedIngredient ingredient : ingredients) {
+            String name = ingredient.getName();
+            if (name == null || name.isEmpty()) {
+                continue;
+            }
+            names.add(name);
+            if (name.indexOf(' ') > 0) {
+                for (String word : name.split(" ")) {
+                    if (isIndexWord(word)) {
+                        names.add(word);
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(names);
+    }
+
+    /** True if a word of a multi-word name is indexed on its own: not "and", nor shorter than three letters. */
+    static boolean isIndexWord(String word) {
+        return word.length() > 2 && !"and".equals(word);
+    }
+
+    /** Normalizes a user-supplied ingredient name the same way parsed names are normalized. */
+    public static String normalizeName(String name) {
+        return parse(name).getName();
+    }
+
+    public static ParsedIngredient parse(String line) {
+        if (line == null) {
+            return new ParsedIngredient(null, null, null);
+        }
+        String text = line.toLowerCase(Locale.ROOT);
+        int length = text.length();
+        int[] pos = {skipSpaces(text, 0)};
+
+        Double quantity = readAmount(text, pos);
+        if (quantity == null && (text.startsWith("a ", pos[0]) || text.startsWith("an ", pos[0]))) {
+            // "a pinch of salt", "an onion"
+            quantity = 1.0;
+            pos[0] = text.indexOf(' ', pos[0]) + 1;
+        } else if (quantity != null) {
+            // Ranges ("2-3", "2 to 3"): keep the lower bound
+            int i = skipSpaces(text, pos[0]);
+            if (i < length && (text.charAt(i) == '-' || text.charAt(i) == '–')) {
+                pos[0] = skipSpaces(text, i + 1);
+                readAmount(text, pos);
+            } else if (text.startsWith("to ", i)) {
+                int upper = skipSpaces(text, i + 3);
+                if (upper < length && isAmountStart(text.charAt(upper))) {
+                    pos[0] = upper;
+                    readAmount(text, pos);
+                }
+            }
+            // Package sizes: "1 (14 oz) can tomatoes"
+            i = skipSpaces(text, pos[0]);
+            if (i < length && text.charAt(i) == '(') {
+                int close = text.indexOf(')', i);
+                pos[0] = close < 0 ? length : close + 1;
+            }
+        }
+
+        String unit = null;
+        int wordStart = skipSpaces(text, pos[0]);
+        int wordEnd = wordStart;
+        while (wordEnd < length && Character.isLetter(text.charAt(wordEnd))) {
+            wordEnd++;
+        }
+        if (wordEnd > wordStart) {
+            String candidate = UNITS.get(text.substring(wordStart, wordEnd));
+            // A bare "l" or "g" only counts as a unit right after an amount ("500g", "1 l")
+            if (candidate != null && (quantity != null || wordEnd - wordStart > 1)) {
+                unit = candidate;
+                pos[0] = wordEnd < length && text.charAt(wordEnd) == '.' ? wordEnd + 1 : wordEnd;
+            }
+        }
+
+        return new ParsedIngredient(quantity, unit, readName(text, pos[0]));
+    }
+
+    private static boolean isAmountStart(char c) {
+        return Character.isDigit(c) || fractionValue(c) > 0;
+    }
+
+    /** Reads "2", "1.5", "1/2", "1 1/2", "½" or "1½" at pos[0]; advances pos[0] past it. */
+    private static Double readAmount(String text, int[] pos) {
+        int length = text.length();
+        int i = pos[0];
+        double value = 0;
+        boolean found = false;
+
+        int start = i;
+        while (i < length && Character.isDigit(text.charAt(i))) {
+            value = value * 10 + (text.charAt(i) - '0');
+            i++;
+        }
+        if (i > start) {
+            found = true;
+            if (i + 1 < length && (text.charAt(i) == '.' || text.charAt(i) == ',') && Character.isDigit(text.charAt(i + 1))) {
+                double scale = 0.1;
+                i++;
+                while (i < length && Character.isDigit(text.charAt(i))) {
+                    value += (text.charAt(i) - '0') * scale;
+                    scale /= 10;
+                    i++;
+                }
+            } else if (i + 1 < length && text.charAt(i) == '/' && Character.isDigit(text.charAt(i + 1))) {
+                int denominator = 0;
+                i++;
+                while (i < length && Character.isDigit(text.charAt(i))) {
+                    denominator = denominator * 10 + (text.charAt(i) - '0');
+                    i++;
+                }
+                value = denominator == 0 ? value : value / denominator;
+                pos[0] = i;
+                return value;
+            }
+        }
+
+        if (i < length && fractionValue(text.charAt(i)) > 0) {
+            value += fractionValue(text.charAt(i));
+            i++;
+            found = true;
+        } else if (found) {
+            // Mixed number: "1 1/2"
+            int j = skipSpaces(text, i);
+            int numerator = 0;
+            int k = j;
+            while (k < length && Character.isDigit(text.charAt(k))) {
+                numerator = numerator * 10 + (text.charAt(k) - '0');
+                k++;
+            }
+            if (k > j && k + 1 < length && text.charAt(k) == '/' && Character.isDigit(text.charAt(k + 1))) {
+                int denominator = 0;
+                k++;
+                while (k < length && Character.isDigit(text.charAt(k))) {
+                    denominator = denominator * 10 + (text.charAt(k) - '0');
+                    k++;
+                }
+                if (denominator != 0) {
+                    value += (double) numerator / denominator;
+                    i = k;
+                }
+            }
+        }
+
+        if (!found) {
+            return null;
+        }
+        pos[0] = i;
+        return value;
+    }
+
+    private static double fractionValue(char c) {
+        return switch (c) {
+            case '½' -> 0.5;
+            case '⅓' -> 1.0 / 3;
+            case '⅔' -> 2.0 / 3;
+            case '¼' -> 0.25;
+            case '¾' -> 0.75;
+            case '⅛' -> 0.125;
+            default -> 0;
+        };
+    }
+
+    private static String readName(String text, int from) {
+        int end = text.length();
+        for (int i = from; i < end; i++) {
+            char c = text.charAt(i);
+            if (c == ',' || c == '(' || c == ';') {
+                end = i;
+                break;
+            }
+        }
+        String rest = text.substring(from, end);
+        for (String trailer : TRAILERS) {
+            int at = rest.indexOf(trailer);
+            if (at >= 0) {
+                rest = rest.substring(0, at);
+            }
+        }
+
+        List<String> words = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= rest.length(); i++) {
+            boolean wordChar = i < rest.length() && (Character.isLetter(rest.charAt(i)) || rest.charAt(i) == '-');
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String word = rest.substring(start, i);
+                if (!DESCRIPTORS.contains(word)) {
+                    words.add(word);
+                }
+                start = -1;
+            }
+        }
+        if (words.isEmpty()) {
+            return null;
+        }
+        words.set(words.size() - 1, singular(words.get(words.size() - 1)));
+        return String.join(" ", words);
+    }
+
+    private static String singular(String word) {
+        if (word.length() <= 3) {
+            return word;
+        }
+        if (word.endsWith("ies")) {
+            return word.substring(0, word.length() - 3) + "y";
+        }
+        if (word.endsWith("oes") || word.endsWith("ches") || word.endsWith("shes") || word.endsWith("sses")) {
+            return word.substring(0, word.length() - 2);
+        }
+        if (word.endsWith("s") && !word.endsWith("ss") && !word.endsWith("us")) {
+            return word.substring(0, word.length() - 1);
+        }
+        return word;
+    }
+
+    private static int skipSpaces(String text, int i) {
+        while (i < text.length() && Character.isWhitespace(text.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+}
@@ -0,0 +1,328 @@
+package backend.recimeclone.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.jsoup.HttpStatusException;
+import org.jsoup.Jsoup;
+import org.jsoup.UnsupportedMimeTypeException;
+import org.jsoup.nodes.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Downloads web pages for the scraper.
+ * <p>
+ * All fetches share one {@link HttpClient}, which keeps connections alive between requests and
+ * prefers HTTP/2, so repeated imports from the same site reuse a connection. Responses are
+ * requested gzip- or deflate-compressed. The body is collected as it arrives and the download is
+ * cancelled once it passes recipes.scraper.max-body-size, compressed or not, so an oversized page
+ * never reaches the heap in full. The page is parsed only when {@link Page#parse} is called.
+ * <p>
+ * Each fetch is timed as {@code recipes.scraper.fetch{host, outcome}}, and the bytes received are
+ * recorded as {@code recipes.scraper.fetch.size{host}}; see {@link ScraperHostTags}.
+ */
+@Service
+public class RecipePageFetcher {
+
+    private static final String USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36";
+    private static final Pattern CHARSET = Pattern.compile("charset=\"?([^\";]+)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern META_CHARSET = Pattern.compile("<meta[^>]+charset=[\"']?([\\w.:-]+)", Pattern.CASE_INSENSITIVE);
+
+    /**
+     * A downloaded page.
+     * @param body The page, decompressed, or null if the server answered 304 Not Modified.
+     * @param charset The charset named by the Content-Type, or null.
+     * @param url The URL the page was finally served from, after redirects.
+     */
+    public record Page(byte[] body, String charset, String url, String etag, String lastModified) {
+
+        public boolean notModified() {
+            return body == null;
+        }
+
+        /** Reads the page as text: in the charset of the Content-Type, else of a meta tag, else UTF-8. */
+        public Reader reader() {
+            Charset decoding = charset != null ? Charset.forName(charset) : sniffCharset(body);
+            return new InputStreamReader(new ByteArrayInputStream(body), decoding);
+        }
+
+        /** Parses the whole page into a DOM. */
+        public Document parse() throws IOException {
+            return Jsoup.parse(new ByteArrayInputStream(body), charset, url);
+        }
+    }
+
+    private final HttpClient httpClient;
+    private final MeterRegistry meterRegistry;
+    private final Duration readTimeout;
+    private final long maxBodyBytes;
+    private final ScraperHostTags hostTags;
+
+    public RecipePageFetcher(MeterRegistry meterRegistry,
+                             @Value("${recipes.scraper.connect-timeout:5s}") Duration connectTimeout,
+                             @Value("${recipes.scraper.read-timeout:10s}") Duration readTimeout,
+                             @Value("${recipes.scraper.max-body-size:5MB}") DataSize maxBodySize,
+                             ScraperHostTags hostTags) {
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(connectTimeout)
+                .build();
+        this.meterRegistry = meterRegistry;
+        this.readTimeout = readTimeout;
+        this.maxBodyBytes = maxBodySize.toBytes();
+        this.hostTags = hostTags;
+    }
+
+    /**
+     * Downloads a page. Given validators from an earlier download, the server may
+     * answer 304 Not Modified instead.
+     * @param etag The ETag of the earlier download, or null.
+     * @param lastModified The Last-Modified of the earlier download, or null.
+     * @throws HttpStatusException If the server answered with an error status.
+     * @throws IOException If the page could not be downloaded, is too large, is not HTML, or the
+     *                     whole response did not arrive within recipes.scraper.read-timeout.
+     */
+    public Page fetch(String url, String etag, String lastModified) throws IOException {
+        URI uri;
+        try {
+            uri = URI.create(url);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid URL: " + url, e);
+        }
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                .timeout(readTimeout)
+                .header("User-Agent", USER_AGENT)
+                .header("Accept", "text/html,application/xhtml+xml;q=0.9,*/*;q=0.8")
+                .header("Accept-Encoding", "gzip, deflate");
+        if (etag != null) {
+            request.header("If-None-Match", etag);
+        }
+        if (lastModified != null) {
+            request.header("If-Modified-Since", lastModified);
+        }
+
+        String host = hostTags.tag(uri.getHost());
+        long start = System.nanoTime();
+        String outcome = "error";
+        try {
+            HttpResponse<byte[]> response = send(request.build());
+            int status = response.statusCode();
+            outcome = String.valueOf(status);
+            DistributionSummary.builder("recipes.scraper.fetch.size")
+                    .baseUnit("bytes")
+                    .tag("host", host)
+                    .register(meterRegistry)
+                    .record(response.body().length);
+            if (status == 304) {
+                return new Page(null, null, response.uri().toString(), header(response, "ETag"), header(response, "Last-Modified"));
+            }
+            if (status >= 400) {
+                throw new HttpStatusException("HTTP error fetching URL", status, url);
+            }
+            String contentType = header(response, "Content-Type");
+            checkContentType(contentType, response.uri());
+            byte[] body = decode(response.body(), header(response, "Content-Encoding"));
+            return new Page(body, charsetOf(contentType), response.uri().toString(), header(response, "ETag"), header(response, "Last-Modified"));
+        } catch (BodyTooLargeException e) {
+            outcome = "too_large";
+            throw e;
+        } catch (HttpTimeoutException e) {
+            outcome = "timeout";
+            throw e;
+        } finally {
+            Timer.builder("recipes.scraper.fetch")
+                    .tag("host", host)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /** Sends the request and waits for the whole response, at most the read timeout. */
+    private HttpResponse<byte[]> send(HttpRequest request) throws IOException {
+        CompletableFuture<HttpResponse<byte[]>> response = httpClient.sendAsync(request, info -> {
+            int status = info.statusCode();
+            if (status == 304 || status >= 400) {
+                return HttpResponse.BodySubscribers.replacing(new byte[0]);
+            }
+            return new CappedBody(maxBodyBytes, info.headers().firstValueAsLong("Content-Length").orElse(-1));
+        });
+        try {
+            return response.get(readTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            response.cancel(true);
+            throw new HttpTimeoutException("Timed out after " + readTimeout.toMillis() + " ms fetching " + request.uri());
+        } catch (InterruptedException e) {
+            response.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted fetching " + request.uri());
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw cause;
+            }
+            throw new IOException("Failed to fetch " + request.uri(), e.getCause());
+        }
+    }
+
+    private static void checkContentType(String contentType, URI uri) throws UnsupportedMimeTypeException {
+        String mimeType = contentType != null ? contentType.split(";", 2)[0].trim().toLowerCase(Locale.ROOT) : null;
+        if (mimeType != null && !mimeType.startsWith("text/") && !mimeType.endsWith("xml")) {
+            throw new UnsupportedMimeTypeException("Unhandled content type", contentType, uri.toString());
+        }
+    }
+
+    /** Undoes the content encoding, applying the same size limit to the decoded body. */
+    private byte[] decode(byte[] body, String encoding) throws IOException {
+        if (encoding == null || encoding.isBlank() || "identity".equalsIgnoreCase(encoding.trim())) {
+            return body;
+        }
+        InputStream decoded;
+        switch (encoding.trim().toLowerCase(Locale.ROOT)) {
+            case "gzip", "x-gzip" -> decoded = new GZIPInputStream(new ByteArrayInputStream(body));
+            case "deflate" -> decoded = new InflaterInputStream(new ByteArrayInputStream(body));
+            default -> throw new IOException("Unsupported Content-Encoding: " + encoding);
+        }
+        try (decoded) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(body.length);
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = decoded.read(buffer)) != -1) {
+                if (out.size() + read > maxBodyBytes) {
+                    throw new BodyTooLargeException(maxBodyBytes);
+                }
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    /** The charset named by the Content-Type, or null to detect it from the page. */
+    private static String charsetOf(String contentType) {
+        return contentType != null ? supportedCharset(CHARSET.matcher(contentType)) : null;
+    }
+
+    /** The charset of a page without one in its Content-Type: from a byte order mark or meta tag, else UTF-8. */
+    static Charset sniffCharset(byte[] body) {
+        if (body.length >= 2 && (body[0] & 0xFF) == 0xFE && (body[1] & 0xFF) == 0xFF) {
+            return StandardCharsets.UTF_16BE;
+        }
+        if (body.length >= 2 && (body[0] & 0xFF) == 0xFF && (body[1] & 0xFF) == 0xFE) {
+            return StandardCharsets.UTF_16LE;
+        }
+        // Meta tags must be within the first 1024 bytes, which are ASCII-compatible up to there
+        String head = new String(body, 0, Math.min(body.length, 1024), StandardCharsets.ISO_8859_1);
+        String charset = supportedCharset(META_CHARSET.matcher(head));
+        return charset != null ? Charset.forName(charset) : StandardCharsets.UTF_8;
+    }
+
+    private static String supportedCharset(Matcher matcher) {
+        if (!matcher.find()) {
+            return null;
+        }
+        String charset = matcher.group(1).trim();
+        try {
+            return Charset.isSupported(charset) ? charset : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static String header(HttpResponse<?> response, String name) {
+        return response.headers().firstValue(name).orElse(null);
+    }
+
+    static final class BodyTooLargeException extends IOException {
+        BodyTooLargeException(long maxBytes) {
+            super("Page is larger than " + maxBytes + " bytes");
+        }
+    }
+
+    /** Collects the body as it arrives, cancelling the download once it exceeds the limit. */
+    private static final class CappedBody implements HttpResponse.BodySubscriber<byte[]> {
+        private final long maxBytes;
+        private final long declaredLength;
+        private final CompletableFuture<byte[]> body = new CompletableFuture<>();
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        private Flow.Subscription subscription;
+
+        CappedBody(long maxBytes, long declaredLength) {
+            this.maxBytes = maxBytes;
+            this.declaredLength = declaredLength;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (declaredLength > maxBytes) {
+                subscription.cancel();
+                body.completeExceptionally(new BodyTooLargeException(maxBytes));
+                return;
+            }
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> buffers) {
+            if (body.isDone()) {
+                return;
+            }
+            for (ByteBuffer buffer : buffers) {
+                if (out.size() + buffer.remaining() > maxBytes) {
+                    subscription.cancel();
+                    body.completeExceptionally(new BodyTooLargeException(maxBytes));
+                    return;
+                }
+                byte[] bytes = new byte[buffer.remaining()];
+                buffer.get(bytes);
+                out.writeBytes(bytes);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            body.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            body.complete(out.toByteArray());
+        }
+
+        @Override
+        public CompletionStage<byte[]> getBody() {
+            return body;
+        }
+    }
+}
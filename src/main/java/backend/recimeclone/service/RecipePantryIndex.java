@@ -0,0 +1,249 @@
+package backend.recimeclone.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * In-memory index from normalized ingredient names to the recipes that use them.
+ * <p>
+ * Every indexed recipe gets an int ordinal, and every distinct ingredient name a
+ * {@link RecipeBitmap} of the ordinals of recipes containing it. Ordinals of removed recipes
+ * are reused, so the bitmaps stay dense without compaction.
+ * <p>
+ * Matching a pantry resolves it to the set of ingredient names it covers, then, chunk by chunk,
+ * counts per recipe how many of those names' bitmaps contain it. Chunks are independent and are
+ * scored in parallel on the common fork/join pool, each keeping its own top-k.
+ * <p>
+ * This class is not thread-safe; {@link RecipePantryService} guards it with a read/write lock.
+ */
+final class RecipePantryIndex {
+
+    private static final int[] EMPTY = new int[0];
+
+    /**
+     * One ranked recipe.
+     * @param matched How many of its distinct ingredients the pantry covers.
+     * @param total How many distinct ingredients it has.
+     * @param missing The names of the ingredients not covered.
+     */
+    record Match(String id, int matched, int total, List<String> missing) {
+        double coverage() {
+            return total == 0 ? 0 : (double) matched / total;
+        }
+    }
+
+    private record Candidate(int ordinal, int matched, int total) {}
+
+    // Best first: highest coverage, then fewest missing, then lowest ordinal for a stable order
+    private static final Comparator<Candidate> BEST_FIRST = Comparator
+            .comparingDouble((Candidate c) -> -(double) c.matched() / c.total())
+            .thenComparingInt(c -> c.total() - c.matched())
+            .thenComparingInt(Candidate::ordinal);
+
+    private final Map<String, Integer> nameIds = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+    private final List<RecipeBitmap> bitmaps = new ArrayList<>();
+    // "chicken" -> ids of "chicken", "chicken breast", "whole roast chicken", ...: a pantry item covers
+    // the names it is a run of whole words of (see RecipeIngredientParser.isIndexWord for single words)
+    private final Map<String, int[]> nameIdsByPhrase = new HashMap<>();
+
+    private final Map<String, Integer> ordinalById = new HashMap<>();
+    private String[] idByOrdinal = new String[1024];
+    private int[][] nameIdsByOrdinal = new int[1024][];
+    private int[] freeOrdinals = new int[64];
+    private int freeCount;
+    private int nextOrdinal;
+
+    int size() {
+        return ordinalById.size();
+    }
+
+    int nameCount() {
+        return names.size();
+    }
+
+    /** Indexes (or re-indexes) a recipe under its normalized ingredient names. */
+    void put(String id, Collection<String> ingredientNames) {
+        remove(id);
+        int[] encoded = encode(ingredientNames);
+        if (encoded.length == 0) {
+            return;
+        }
+        int ordinal = freeCount > 0 ? freeOrdinals[--freeCount] : nextOrdinal++;
+        if (ordinal == idByOrdinal.length) {
+            idByOrdinal = Arrays.copyOf(idByOrdinal, ordinal * 2);
+            nameIdsByOrdinal = Arrays.copyOf(nameIdsByOrdinal, ordinal * 2);
+        }
+        idByOrdinal[ordinal] = id;
+        nameIdsByOrdinal[ordinal] = encoded;
+        ordinalById.put(id, ordinal);
+        for (int nameId : encoded) {
+            bitmaps.get(nameId).add(ordinal);
+        }
+    }
+
+    void remove(String id) {
+        Integer ordinal = ordinalById.remove(id);
+        if (ordinal == null) {
+            return;
+        }
+        for (int nameId : nameIdsByOrdinal[ordinal]) {
+            bitmaps.get(nameId).remove(ordinal);
+        }
+        idByOrdinal[ordinal] = null;
+        nameIdsByOrdinal[ordinal] = null;
+        if (freeCount == freeOrdinals.length) {
+            freeOrdinals = Arrays.copyOf(freeOrdinals, freeCount * 2);
+        }
+        freeOrdinals[freeCount++] = ordinal;
+    }
+
+    /**
+     * Ranks recipes by how much of their ingredient list the pantry covers.
+     * @param pantry Normalized ingredient names the user has. Each covers the names it equals or
+     *               appears in as whole consecutive words, so "chicken" covers "chicken breast".
+     * @param staples Normalized names assumed to be at hand. Each covers only the name it equals,
+     *                so "water" does not cover "coconut water".
+     * @param maxMissing Skip recipes missing more ingredients than this; null for no bound.
+     * @param limit Maximum number of matches returned.
+     */
+    List<Match> match(Collection<String> pantry, Collection<String> staples, Integer maxMissing, int limit) {
+        boolean[] covered = new boolean[names.size()];
+        List<RecipeBitmap> coveredBitmaps = new ArrayList<>();
+        for (String item : pantry) {
+            for (int nameId : nameIdsByPhrase.getOrDefault(item, EMPTY)) {
+                cover(nameId, covered, coveredBitmaps);
+            }
+        }
+        for (String staple : staples) {
+            Integer nameId = nameIds.get(staple);
+            if (nameId != null) {
+                cover(nameId, covered, coveredBitmaps);
+            }
+        }
+        if (coveredBitmaps.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        int chunks = RecipeBitmap.chunkOf(Math.max(nextOrdinal - 1, 0)) + 1;
+        List<Candidate> best = IntStream.range(0, chunks).parallel()
+                .mapToObj(chunk -> scoreChunk(chunk, coveredBitmaps, maxMissing, limit))
+                .flatMap(List::stream)
+                .sorted(BEST_FIRST)
+                .limit(limit)
+                .toList();
+
+        List<Match> matches = new ArrayList<>(best.size());
+        for (Candidate candidate : best) {
+            List<String> missing = new ArrayList<>(candidate.total() - candidate.matched());
+            for (int nameId : nameIdsByOrdinal[candidate.ordinal()]) {
+                if (!covered[nameId]) {
+                    missing.add(names.get(nameId));
+                }
+            }
+            matches.add(new Match(idByOrdinal[candidate.ordinal()], candidate.matched(), candidate.total(), missing));
+        }
+        return matches;
+    }
+
+    private void cover(int nameId, boolean[] covered, List<RecipeBitmap> coveredBitmaps) {
+        if (!covered[nameId]) {
+            covered[nameId] = true;
+            coveredBitmaps.add(bitmaps.get(nameId));
+        }
+    }
+
+    /** Top {@code limit} candidates among the ordinals of one chunk. */
+    private List<Candidate> scoreChunk(int chunk, List<RecipeBitmap> coveredBitmaps, Integer maxMissing, int limit) {
+        short[] counts = null;
+        for (RecipeBitmap bitmap : coveredBitmaps) {
+            if (bitmap.hasChunk(chunk)) {
+                if (counts == null) {
+                    counts = new short[RecipeBitmap.CHUNK_SIZE];
+                }
+                bitmap.countInto(chunk, counts);
+            }
+        }
+        if (counts == null) {
+            return List.of();
+        }
+
+        PriorityQueue<Candidate> top = new PriorityQueue<>(limit + 1, BEST_FIRST.reversed());
+        int base = chunk << RecipeBitmap.CHUNK_BITS;
+        for (int low = 0; low < counts.length; low++) {
+            if (counts[low] == 0) {
+                continue;
+            }
+            int ordinal = base + low;
+            int total = nameIdsByOrdinal[ordinal].length;
+            if (maxMissing != null && total - counts[low] > maxMissing) {
+                continue;
+            }
+            Candidate candidate = new Candidate(ordinal, counts[low], total);
+            if (top.size() < limit || BEST_FIRST.compare(candidate, top.peek()) < 0) {
+                top.add(candidate);
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+        }
+        return new ArrayList<>(top);
+    }
+
+    private int[] encode(Collection<String> ingredientNames) {
+        if (ingredientNames == null || ingredientNames.isEmpty()) {
+            return EMPTY;
+        }
+        int[] encoded = new int[ingredientNames.size()];
+        int size = 0;
+        for (String name : ingredientNames) {
+            if (name == null || name.isEmpty()) {
+                continue;
+            }
+            int nameId = nameIds.computeIfAbsent(name, this::addName);
+            boolean duplicate = false;
+            for (int i = 0; i < size && !duplicate; i++) {
+                duplicate = encoded[i] == nameId;
+            }
+            if (!duplicate) {
+                encoded[size++] = nameId;
+            }
+        }
+        return size == encoded.length ? encoded : Arrays.copyOf(encoded, size);
+    }
+
+    private int addName(String name) {
+        int nameId = names.size();
+        names.add(name);
+        bitmaps.add(new RecipeBitmap());
+        String[] words = name.split(" ");
+        Set<String> phrases = new HashSet<>();
+        phrases.add(name);
+        for (int from = 0; from < words.length; from++) {
+            if (RecipeIngredientParser.isIndexWord(words[from])) {
+                phrases.add(words[from]);
+            }
+            StringBuilder phrase = new StringBuilder(words[from]);
+            for (int to = from + 1; to < words.length; to++) {
+                phrases.add(phrase.append(' ').append(words[to]).toString());
+            }
+        }
+        for (String phrase : phrases) {
+            nameIdsByPhrase.merge(phrase, new int[]{nameId}, (a, b) -> {
+                int[] merged = Arrays.copyOf(a, a.length + 1);
+                merged[a.length] = nameId;
+                return merged;
+            });
+        }
+        return nameId;
+    }
+}
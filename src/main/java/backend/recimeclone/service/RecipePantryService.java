@@ -0,0 +1,188 @@
+package backend.recimeclone.service;
+
+import backend.recimeclone.models.ParsedIngredient;
+import backend.recimeclone.models.Recipe;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * "What can I cook": ranks recipes by how much of their ingredient list a user's pantry covers.
+ * <p>
+ * Backed by a {@link RecipePantryIndex} of ingredient-name bitmaps. Like the search index it
+ * lives in memory on each instance, is rebuilt from MongoDB in the background once the
+ * application is ready, and is kept current from {@link RecipeChangedEvent}s, including those
+ * {@link RecipeChangeFeed} publishes for other instances' writes.
+ * <p>
+ * A pantry item covers the ingredient names it equals or appears in as whole consecutive words,
+ * the way /with-ingredients matches a single word, so "chicken" covers "chicken breast" and
+ * "olive oil" covers "extra virgin olive oil". Staples are only assumed, so they cover just the
+ * name they equal: "pepper" does not make "red bell pepper" available.
+ */
+@Service
+@RequiredArgsConstructor
+public class RecipePantryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecipePantryService.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    // Ingredients every kitchen is assumed to have; recipe ingredients named exactly so never count as missing
+    @Value("${recipes.pantry.staples:salt,water,pepper}")
+    private List<String> staples;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private RecipePantryIndex index = new RecipePantryIndex();
+    private List<RecipeChangedEvent> pendingDuringRebuild; // non-null while a rebuild is running
+
+    /**
+     * One ranked recipe.
+     * @param matched How many of its distinct ingredients the pantry covers.
+     * @param total How many distinct ingredients it has.
+     * @param missing The ingredients the user would still need.
+     */
+    public record Match(String id, int matched, int total, double coverage, List<String> missing) {}
+
+    /**
+     * Returns the recipes the given ingredients cover best, best first.
+     * @param ingredients Free-text ingredient names; normalized like parsed recipe ingredients.
+     * @param maxMissing Only return recipes missing at most this many ingredients; null for no bound.
+     * @param limit Maximum number of matches.
+     */
+    public List<Match> match(Collection<String> ingredients, Integer maxMissing, int limit) {
+        Set<String> pantry = new LinkedHashSet<>();
+        for (String ingredient : ingredients) {
+            String name = RecipeIngredientParser.normalizeName(ingredient);
+            if (name != null) {
+                pantry.add(name);
+            }
+        }
+        if (pantry.isEmpty()) {
+            return List.of();
+        }
+        Set<String> assumed = new LinkedHashSet<>();
+        for (String staple : staples) {
+            String name = RecipeIngredientParser.normalizeName(staple);
+            if (name != null) {
+                assumed.add(name);
+            }
+        }
+
+        List<RecipePantryIndex.Match> matches;
+        lock.readLock().lock();
+        try {
+            matches = index.match(pantry, assumed, maxMissing, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Match> result = new ArrayList<>(matches.size());
+        for (RecipePantryIndex.Match match : matches) {
+            result.add(new Match(match.id(), match.matched(), match.total(), match.coverage(), match.missing()));
+        }
+        return result;
+    }
+
+    @EventListener
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        Collection<String> names = event.current() != null ? ingredientNames(event.current()) : null;
+        lock.writeLock().lock();
+        try {
+            apply(index, event.recipeId(), names);
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.add(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildInBackground() {
+        Thread rebuild = new Thread(this::rebuild, "recipe-pantry-rebuild");
+        rebuild.setDaemon(true);
+        rebuild.start();
+    }
+
+    /** Rebuilds the whole index from the database, then swaps it in. */
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            if (pendingDuringRebuild != null) {
+                return;
+            }
+            pendingDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long started = System.currentTimeMillis();
+        RecipePantryIndex rebuilt = new RecipePantryIndex();
+        try {
+            Query query = new Query(Criteria.where("deletionDate").is(null));
+            query.fields().include("ingredients", "parsedIngredients");
+            try (Stream<Recipe> recipes = mongoTemplate.stream(query, Recipe.class)) {
+                recipes.forEach(recipe -> rebuilt.put(recipe.getId(), ingredientNames(recipe)));
+            }
+        } catch (RuntimeException e) {
+            logger.error("Pantry index rebuild failed; keeping the current index", e);
+            lock.writeLock().lock();
+            try {
+                pendingDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (RecipeChangedEvent event : pendingDuringRebuild) {
+                apply(rebuilt, event.recipeId(), event.current() != null ? ingredientNames(event.current()) : null);
+            }
+            pendingDuringRebuild = null;
+            index = rebuilt;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Pantry index rebuilt: {} recipes, {} ingredients in {} ms",
+                rebuilt.size(), rebuilt.nameCount(), System.currentTimeMillis() - started);
+    }
+
+    private static void apply(RecipePantryIndex target, String id, Collection<String> names) {
+        if (names != null) {
+            target.put(id, names);
+        } else {
+            target.remove(id);
+        }
+    }
+
+    /** Distinct full ingredient names; recipes not parsed yet (before the backfill) are parsed here. */
+    private static Collection<String> ingredientNames(Recipe recipe) {
+        List<ParsedIngredient> parsed = recipe.getParsedIngredients() != null
+                ? recipe.getParsedIngredients()
+                : RecipeIngredientParser.parseAll(recipe.getIngredients());
+        Set<String> names = new LinkedHashSet<>();
+        for (ParsedIngredient ingredient : parsed) {
+            if (ingredient.getName() != null) {
+                names.add(ingredient.getName());
+            }
+        }
+        return names;
+    }
+}
@@ -0,0 +1,66 @@
+package backend.recimeclone.service;
+
+import backend.recimeclone.models.Recipe;
+import backend.recimeclone.models.RecipeRating;
+import com.mongodb.client.result.DeleteResult;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Physically removes soft-deleted recipes once their tombstones are older than the retention
+ * period. Tombstones are found through the partial deletionDate index and removed in bounded
+ * deleteMany batches, so a large backlog never turns into one long-running delete. The ratings
+ * of purged recipes are removed with them.
+ * Running on several instances at once is harmless: each batch is idempotent.
+ */
+@Service
+@RequiredArgsConstructor
+public class RecipePurgeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecipePurgeService.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${recipes.soft-delete.retention:30d}")
+    private Duration retention;
+
+    @Value("${recipes.soft-delete.purge-batch-size:1000}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${recipes.soft-delete.purge-interval:1h}",
+            initialDelayString = "${recipes.soft-delete.purge-interval:1h}")
+    public void purgeExpiredTombstones() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        long purged = 0;
+        while (true) {
+            Query expired = Query.query(Criteria.where("deletionDate").lt(cutoff)).limit(batchSize);
+            expired.fields().include("id");
+            List<String> ids = mongoTemplate.find(expired, Recipe.class).stream().map(Recipe::getId).toList();
+            if (ids.isEmpty()) {
+                break;
+            }
+            DeleteResult result = mongoTemplate.remove(
+                    Query.query(Criteria.where("id").in(ids).and("deletionDate").lt(cutoff)), Recipe.class);
+            purged += result.getDeletedCount();
+            // Ratings of purged recipes; any still-buffered aggregate deltas then match no recipe and are dropped
+            mongoTemplate.remove(Query.query(Criteria.where("recipeId").in(ids)), RecipeRating.class);
+            if (ids.size() < batchSize) {
+                break;
+            }
+        }
+        if (purged > 0) {
+            logger.info("Purged {} recipe tombstones deleted before {}", purged, cutoff);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package backend.recimeclone.service;
+
+import backend.recimeclone.models.Recipe;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.SetOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Coalesces changes to recipes' rating aggregates in memory and writes them in periodic batches.
+ * <p>
+ * A burst of ratings on a popular recipe becomes one {@code $inc} of ratingCount and ratingSum
+ * per flush instead of one write per rating. Pending deltas are spread over lock stripes chosen
+ * by recipe id, so concurrent raters of different recipes rarely contend. Each flush sends one
+ * ordered bulk write: per recipe an atomic {@code $inc}, followed by a pipeline update that
+ * recomputes ratingAverage from the stored count and sum, so the average never drifts. The
+ * {@code $inc} also bumps the recipe's version, so its ETag changes with the aggregates, and
+ * the written recipes are dropped from the {@link RecipeCacheService} so neither the body nor
+ * the ETag is served from a copy taken before the flush.
+ * <p>
+ * The individual ratings are written immediately by {@link RecipeRatingService}; only the
+ * aggregates lag, by at most one flush interval. Pending deltas are flushed on shutdown, and
+ * deltas the database rejected are put back for the next flush.
+ */
+@Service
+public class RecipeRatingBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecipeRatingBuffer.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final RecipeCacheService recipeCacheService;
+    private final Map<String, long[]>[] stripes; // recipeId -> {countDelta, sumDelta}
+    private final int stripeMask;
+
+    @SuppressWarnings("unchecked")
+    public RecipeRatingBuffer(MongoTemplate mongoTemplate,
+                              RecipeCacheService recipeCacheService,
+                              @Value("${recipes.ratings.buffer-stripes:16}") int stripeCount) {
+        this.mongoTemplate = mongoTemplate;
+        this.recipeCacheService = recipeCacheService;
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1; // next power of two
+        this.stripes = new Map[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new HashMap<>();
+        }
+        this.stripeMask = size - 1;
+    }
+
+    /**
+     * Records a change to a recipe's aggregates.
+     * @param countDelta +1 for a new rating, -1 for a removed one, 0 for a changed one.
+     * @param sumDelta The change in the sum of rating values.
+     */
+    public void add(String recipeId, long countDelta, long sumDelta) {
+        Map<String, long[]> stripe = stripes[stripeOf(recipeId)];
+        synchronized (stripe) {
+            long[] delta = stripe.computeIfAbsent(recipeId, id -> new long[2]);
+            delta[0] += countDelta;
+            delta[1] += sumDelta;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${recipes.ratings.flush-interval:2s}",
+            initialDelayString = "${recipes.ratings.flush-interval:2s}")
+    @PreDestroy
+    public void flush() {
+        Map<String, long[]> pending = new HashMap<>();
+        for (Map<String, long[]> stripe : stripes) {
+            synchronized (stripe) {
+                stripe.forEach((id, delta) -> {
+                    if (delta[0] != 0 || delta[1] != 0) {
+                        pending.put(id, delta);
+                    }
+                });
+                stripe.clear();
+            }
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, Recipe.class);
+        AggregationUpdate recomputeAverage = AggregationUpdate.update().set(SetOperation.set("ratingAverage").toValue(
+                ConditionalOperators.when(ComparisonOperators.Gt.valueOf("ratingCount").greaterThanValue(0))
+                        .then(ArithmeticOperators.Divide.valueOf("ratingSum").divideBy("ratingCount"))
+                        .otherwise(0)));
+        List<Map.Entry<String, long[]>> writes = new ArrayList<>(pending.entrySet());
+        for (Map.Entry<String, long[]> write : writes) {
+            Query recipe = Query.query(Criteria.where("id").is(write.getKey()));
+            bulk.updateOne(recipe, new Update().inc("ratingCount", write.getValue()[0]).inc("ratingSum", write.getValue()[1])
+                    .inc("version", 1));
+            bulk.updateOne(recipe, recomputeAverage);
+        }
+        try {
+            bulk.execute();
+            logger.debug("Flushed rating aggregates of {} recipes", writes.size());
+        } catch (BulkOperationException e) {
+            // Ordered: operations before the first error were applied, none after it. Put back the
+            // deltas whose $inc did not run; re-sending an applied $inc would count it twice.
+            int failed = e.getErrors().get(0).getIndex();
+            int retryFrom = failed % 2 == 0 ? failed / 2 : failed / 2 + 1;
+            for (Map.Entry<String, long[]> write : writes.subList(retryFrom, writes.size())) {
+                add(write.getKey(), write.getValue()[0], write.getValue()[1]);
+            }
+            logger.warn("Rating aggregate flush stopped at operation {}; {} recipes retried on the next flush",
+                    failed, writes.size() - retryFrom);
+        } catch (RuntimeException e) {
+            // Unknown which operations were applied, so nothing is retried
+            logger.error("Failed to flush rating aggregates of {} recipes", writes.size(), e);
+        }
+        // Also after a failure: some of the writes may have been applied, and a needless eviction only costs a read
+        for (Map.Entry<String, long[]> write : writes) {
+            recipeCacheService.invalidate(write.getKey());
+        }
+    }
+
+    private int stripeOf(String recipeId) {
+        int hash = recipeId.hashCode();
+        return (hash ^ (hash >>> 16)) & stripeMask;
+    }
+}
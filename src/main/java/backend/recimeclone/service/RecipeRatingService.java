@@ -0,0 +1,98 @@
+package backend.recimeclone.service;
+
+import backend.recimeclone.dtos.RecipeRatingDto;
+import backend.recimeclone.models.Recipe;
+import backend.recimeclone.models.RecipeRating;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Per-user recipe ratings. Each rating is one document in RecipeRatings, written immediately;
+ * the change it makes to the recipe's count and sum is handed to the {@link RecipeRatingBuffer},
+ * which applies it with {@code $inc}, so aggregates are never recomputed by scanning ratings.
+ * <p>
+ * Every write reads back the previous value in the same findAndModify, so the delta is exact
+ * even when one user rates the same recipe from two requests at once.
+ */
+@Service
+@RequiredArgsConstructor
+public class RecipeRatingService {
+
+    private final MongoTemplate mongoTemplate;
+    private final RecipeRatingBuffer ratingBuffer;
+
+    /**
+     * Sets (or changes) the user's rating of a recipe.
+     * @param value 1 to 5.
+     * @return The rating with the recipe's aggregates, or empty if the recipe does not exist or was deleted.
+     */
+    public Optional<RecipeRatingDto> rate(String recipeId, String userId, int value) {
+        if (!mongoTemplate.exists(liveRecipe(recipeId), Recipe.class)) {
+            return Optional.empty();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Update update = new Update().set("value", value).set("updateDate", now).setOnInsert("creationDate", now);
+        FindAndModifyOptions options = FindAndModifyOptions.options().upsert(true).returnNew(false);
+        RecipeRating previous;
+        try {
+            previous = mongoTemplate.findAndModify(rating(recipeId, userId), update, options, RecipeRating.class);
+        } catch (DuplicateKeyException e) {
+            // Two first ratings raced on the upsert; the loser now finds the winner's document
+            previous = mongoTemplate.findAndModify(rating(recipeId, userId), update, options, RecipeRating.class);
+        }
+        if (previous == null) {
+            ratingBuffer.add(recipeId, 1, value);
+        } else if (previous.getValue() != value) {
+            ratingBuffer.add(recipeId, 0, value - previous.getValue());
+        }
+        return find(recipeId, userId).map(found -> new RecipeRatingDto(recipeId, value, found.ratingCount(), found.ratingAverage()));
+    }
+
+    /**
+     * Withdraws the user's rating of a recipe.
+     * @return True if there was a rating to remove.
+     */
+    public boolean remove(String recipeId, String userId) {
+        RecipeRating removed = mongoTemplate.findAndRemove(rating(recipeId, userId), RecipeRating.class);
+        if (removed == null) {
+            return false;
+        }
+        ratingBuffer.add(recipeId, -1, -removed.getValue());
+        return true;
+    }
+
+    /**
+     * Returns the user's rating of a recipe together with the recipe's aggregates.
+     * @return Empty if the recipe does not exist or was deleted; the value is null if the user has not rated it.
+     */
+    public Optional<RecipeRatingDto> find(String recipeId, String userId) {
+        Query recipeQuery = liveRecipe(recipeId);
+        recipeQuery.fields().include("ratingCount", "ratingAverage");
+        Recipe recipe = mongoTemplate.findOne(recipeQuery, Recipe.class);
+        if (recipe == null) {
+            return Optional.empty();
+        }
+        Query ratingQuery = rating(recipeId, userId);
+        ratingQuery.fields().include("value");
+        RecipeRating rating = mongoTemplate.findOne(ratingQuery, RecipeRating.class);
+        return Optional.of(new RecipeRatingDto(recipeId, rating != null ? rating.getValue() : null,
+                recipe.getRatingCount(), recipe.getRatingAverage()));
+    }
+
+    private static Query liveRecipe(String recipeId) {
+        return Query.query(Criteria.where("id").is(recipeId).and("deletionDate").is(null));
+    }
+
+    private static Query rating(String recipeId, String userId) {
+        return Query.query(Criteria.where("recipeId").is(recipeId).and("userId").is(userId));
+    }
+}
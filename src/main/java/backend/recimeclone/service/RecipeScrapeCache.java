@@ -0,0 +1,229 @@
+package backend.recimeclone.service;
+
+import backend.recimeclone.models.Recipe;
+import backend.recimeclone.models.ScrapedPage;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+
+/**
+ * Cache of recipes extracted from web pages, keyed by canonical URL.
+ * <p>
+ * A page is served from the cache for recipes.scrape-cache.ttl after it was fetched. After that
+ * the site is asked again with the page's ETag and Last-Modified; a 304 Not Modified renews the
+ * entry without downloading or parsing the page. Stale entries are kept for revalidation until
+ * recipes.scrape-cache.retention, unless the site sent neither validator.
+ * <p>
+ * Pages are held in a bounded Caffeine cache in front of the ScrapedPages collection, so the
+ * cache survives restarts and is shared by every instance. Concurrent requests for the same URL
+ * on one instance share a single fetch. Metrics are published as {@code cache.*{cache=scrapedPages}}.
+ * <p>
+ * Every call returns a new {@link Recipe}, which the caller may change and save.
+ */
+@Service
+public class RecipeScrapeCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecipeScrapeCache.class);
+
+    // Query parameters that only track where a visitor came from
+    private static final Set<String> TRACKING_PARAMETERS = Set.of("fbclid", "gclid", "dclid", "msclkid", "mc_cid", "mc_eid", "igshid");
+
+    /** Downloads and extracts a page, conditionally when validators from an earlier download are given. */
+    @FunctionalInterface
+    interface Fetcher {
+        Fetched fetch(String url, String etag, String lastModified) throws Exception;
+    }
+
+    /**
+     * Result of one fetch.
+     * @param recipe The extracted recipe, or null if the site answered 304 Not Modified.
+     */
+    record Fetched(Recipe recipe, String etag, String lastModified) {}
+
+    private final MongoTemplate mongoTemplate;
+    private final Duration ttl;
+    private final Duration retention;
+    private final Cache<String, ScrapedPage> pages;
+    private final Map<String, CompletableFuture<ScrapedPage>> inFlight = new ConcurrentHashMap<>();
+
+    public RecipeScrapeCache(MongoTemplate mongoTemplate,
+                             MeterRegistry meterRegistry,
+                             @Value("${recipes.scrape-cache.maximum-size:1000}") long maximumSize,
+                             @Value("${recipes.scrape-cache.ttl:6h}") Duration ttl,
+                             @Value("${recipes.scrape-cache.retention:30d}") Duration retention) {
+        this.mongoTemplate = mongoTemplate;
+        this.ttl = ttl;
+        this.retention = retention.compareTo(ttl) > 0 ? retention : ttl;
+        this.pages = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, pages, "scrapedPages");
+    }
+
+    /**
+     * Returns the recipe of a page, from the cache while it is fresh and from the fetcher otherwise.
+     * @throws Exception Whatever the fetcher threw; failures are not cached.
+     */
+    public Recipe get(String url, Fetcher fetcher) throws Exception {
+        String key = canonicalize(url);
+        ScrapedPage page = pages.getIfPresent(key);
+        if (page != null && isFresh(page)) {
+            return toRecipe(page);
+        }
+
+        CompletableFuture<ScrapedPage> load = new CompletableFuture<>();
+        CompletableFuture<ScrapedPage> running = inFlight.putIfAbsent(key, load);
+        if (running != null) {
+            return toRecipe(await(running));
+        }
+        try {
+            // A load may have finished between the lookup above and claiming the key
+            ScrapedPage current = pages.getIfPresent(key);
+            ScrapedPage loaded = current != null && isFresh(current) ? current : load(key, url, current, fetcher);
+            load.complete(loaded);
+            return toRecipe(loaded);
+        } catch (Exception e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, load);
+        }
+    }
+
+    private ScrapedPage load(String key, String url, ScrapedPage cached, Fetcher fetcher) throws Exception {
+        if (cached == null) {
+            cached = findStored(key);
+            if (cached != null && isFresh(cached)) {
+                pages.put(key, cached);
+                return cached;
+            }
+        }
+
+        boolean conditional = cached != null && (cached.getEtag() != null || cached.getLastModified() != null);
+        Fetched fetched = conditional
+                ? fetcher.fetch(url, cached.getEtag(), cached.getLastModified())
+                : fetcher.fetch(url, null, null);
+        LocalDateTime now = LocalDateTime.now();
+        ScrapedPage page = new ScrapedPage();
+        page.setId(key);
+        page.setFetchedAt(now);
+        page.setFreshUntil(now.plus(ttl));
+        if (fetched.recipe() == null) {
+            if (!conditional) {
+                throw new IOException("Unexpected 304 Not Modified for " + url);
+            }
+            page.setRecipe(cached.getRecipe());
+            page.setEtag(fetched.etag() != null ? fetched.etag() : cached.getEtag());
+            page.setLastModified(fetched.lastModified() != null ? fetched.lastModified() : cached.getLastModified());
+            logger.debug("Revalidated cached recipe of {}", key);
+        } else {
+            Document recipe = new Document();
+            mongoTemplate.getConverter().write(fetched.recipe(), recipe);
+            page.setRecipe(recipe);
+            page.setEtag(fetched.etag());
+            page.setLastModified(fetched.lastModified());
+        }
+        boolean revalidatable = page.getEtag() != null || page.getLastModified() != null;
+        page.setExpireAt(revalidatable ? now.plus(retention) : page.getFreshUntil());
+        pages.put(key, page);
+        store(page);
+        return page;
+    }
+
+    private ScrapedPage findStored(String key) {
+        try {
+            return mongoTemplate.findById(key, ScrapedPage.class);
+        } catch (RuntimeException e) {
+            logger.warn("Could not read the cached recipe of {}; fetching it", key, e);
+            return null;
+        }
+    }
+
+    private void store(ScrapedPage page) {
+        try {
+            mongoTemplate.save(page);
+        } catch (RuntimeException e) {
+            // The page is still cached in memory; only other instances and restarts miss it
+            logger.warn("Could not store the cached recipe of {}", page.getId(), e);
+        }
+    }
+
+    private static ScrapedPage await(CompletableFuture<ScrapedPage> load) throws Exception {
+        try {
+            return load.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+
+    private static boolean isFresh(ScrapedPage page) {
+        return page.getFreshUntil() != null && page.getFreshUntil().isAfter(LocalDateTime.now());
+    }
+
+    /** A new copy of the cached recipe, dated now, as if it had just been extracted. */
+    private Recipe toRecipe(ScrapedPage page) {
+        Recipe recipe = mongoTemplate.getConverter().read(Recipe.class, page.getRecipe());
+        LocalDateTime now = LocalDateTime.now();
+        recipe.setCreationDate(now);
+        recipe.setUpdateDate(now);
+        return recipe;
+    }
+
+    /**
+     * Canonical form of a URL for use as cache key: lower-case scheme and host, no default port,
+     * fragment, user info or tracking parameters, and the remaining query parameters sorted.
+     * @throws URISyntaxException If the URL is not an absolute http(s) URL.
+     */
+    static String canonicalize(String url) throws URISyntaxException {
+        URI uri = new URI(url.trim()).normalize();
+        String scheme = uri.getScheme() != null ? uri.getScheme().toLowerCase(Locale.ROOT) : null;
+        if (!("http".equals(scheme) || "https".equals(scheme)) || uri.getHost() == null) {
+            throw new URISyntaxException(url, "Not an absolute http(s) URL");
+        }
+        StringBuilder key = new StringBuilder(scheme).append("://").append(uri.getHost().toLowerCase(Locale.ROOT));
+        int port = uri.getPort();
+        if (port != -1 && !(port == 80 && "http".equals(scheme)) && !(port == 443 && "https".equals(scheme))) {
+            key.append(':').append(port);
+        }
+        String path = uri.getRawPath();
+        key.append(path == null || path.isEmpty() ? "/" : path);
+        if (uri.getRawQuery() != null) {
+            String query = Arrays.stream(uri.getRawQuery().split("&"))
+                    .filter(parameter -> !parameter.isEmpty() && !isTracking(parameter))
+                    .sorted()
+                    .collect(Collectors.joining("&"));
+            if (!query.isEmpty()) {
+                key.append('?').append(query);
+            }
+        }
+        return key.toString();
+    }
+
+    private static boolean isTracking(String parameter) {
+        int equals = parameter.indexOf('=');
+        String name = (equals < 0 ? parameter : parameter.substring(0, equals)).toLowerCase(Locale.ROOT);
+        return name.startsWith("utm_") || TRACKING_PARAMETERS.contains(name);
+    }
+}
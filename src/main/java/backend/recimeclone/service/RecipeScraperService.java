@@ -3,41 +3,81 @@ package backend.recimeclone.service;
 import backend.recimeclone.models.Recipe;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.jsoup.Jsoup;
+import lombok.RequiredArgsConstructor;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
-import org.jsoup.select.Elements;
+import org.jsoup.select.Evaluator;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.net.URI;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.regex.Pattern;
 
 @Service
+@RequiredArgsConstructor
 public class RecipeScraperService {
 
     private final ObjectMapper objectMapper = new ObjectMapper();
-
+    private final RecipeScrapeCache scrapeCache;
+    private final RecipePageFetcher pageFetcher;
+    private final RecipeExtractorRegistry extractorRegistry;
+    private final JsonLdRecipeReader jsonLdReader = new JsonLdRecipeReader(objectMapper);
+
+    /**
+     * Extracts the recipe of a web page. Pages are cached; see {@link RecipeScrapeCache}.
+     * @return A new recipe, which the caller may change and save.
+     */
     public Recipe scrapeRecipeFromUrl(String url) throws Exception {
-        Document doc = Jsoup.connect(url)
-                .userAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36")
-                .timeout(10000)
-                .get();
-
-        // Try JSON-LD structured data first
-        Elements jsonLdElements = doc.select("script[type=application/ld+json]");
-        for (Element element : jsonLdElements) {
-            String jsonContent = element.html();
-            if (jsonContent.contains("Recipe")) {
-                Recipe recipe = parseJsonLdRecipe(jsonContent);
-                if (recipe != null && recipe.getTitle() != null && !recipe.getTitle().isEmpty()) {
-                    return recipe;
+        return scrapeCache.get(url, this::fetchRecipe);
+    }
+
+    /**
+     * Downloads and extracts a page. Given validators from an earlier download, the site may
+     * answer 304 Not Modified instead, and nothing is extracted.
+     */
+    private RecipeScrapeCache.Fetched fetchRecipe(String url, String etag, String lastModified) throws IOException {
+        RecipePageFetcher.Page page = pageFetcher.fetch(url, etag, lastModified);
+        Recipe recipe = page.notModified() ? null : extractRecipe(page);
+        return new RecipeScrapeCache.Fetched(recipe, page.etag(), page.lastModified());
+    }
+
+    /**
+     * Tries the extractors the registry suggests for the page's host until one produces a
+     * complete recipe: a title and at least one ingredient. Without one, returns the first recipe
+     * with a title, or else the generic extractor's result.
+     */
+    private Recipe extractRecipe(RecipePageFetcher.Page page) throws IOException {
+        String host = URI.create(page.url()).getHost();
+        Document doc = null;
+        Recipe fallback = null;
+        for (String extractor : extractorRegistry.candidates(host)) {
+            Recipe recipe;
+            if (RecipeExtractorRegistry.JSON_LD.equals(extractor)) {
+                // Read straight from the page text, without building a DOM
+                JsonNode jsonLd = jsonLdReader.firstRecipe(page.reader());
+                recipe = jsonLd != null ? extractRecipeFromJsonNode(jsonLd) : null;
+            } else {
+                if (doc == null) {
+                    doc = page.parse();
                 }
+                recipe = parseHtmlRecipe(doc, extractorRegistry.profile(extractor));
+            }
+            boolean complete = recipe != null && hasText(recipe.getTitle()) && !recipe.getIngredients().isEmpty();
+            extractorRegistry.record(host, extractor, complete);
+            if (complete) {
+                return recipe;
+            }
+            if (recipe != null && (fallback == null || (!hasText(fallback.getTitle()) && hasText(recipe.getTitle())))) {
+                fallback = recipe;
             }
         }
+        return fallback;
+    }
 
-        // Fallback to HTML parsing
-        return parseHtmlRecipe(doc);
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
     }
 
     public Recipe parseRecipeFromText(String text) {
@@ -113,26 +153,8 @@ public class RecipeScraperService {
         return recipe;
     }
 
-    private Recipe parseJsonLdRecipe(String jsonContent) {
-        try {
-            JsonNode rootNode = objectMapper.readTree(jsonContent);
-
-            if (rootNode.isArray()) {
-                for (JsonNode node : rootNode) {
-                    if ("Recipe".equals(node.path("@type").asText())) {
-                        return extractRecipeFromJsonNode(node);
-                    }
-                }
-            } else if ("Recipe".equals(rootNode.path("@type").asText())) {
-                return extractRecipeFromJsonNode(rootNode);
-            }
-        } catch (Exception e) {
-            // Ignore JSON parsing errors, fallback to HTML
-        }
-        return null;
-    }
-
-    private Recipe extractRecipeFromJsonNode(JsonNode node) {
+    /** Maps one schema.org Recipe node; also used by {@link RecipeImportService} for imported JSON-LD. */
+    Recipe extractRecipeFromJsonNode(JsonNode node) {
         Recipe recipe = new Recipe();
 
         recipe.setTitle(node.path("name").asText());
@@ -150,16 +172,7 @@ public class RecipeScraperService {
 
         // Extract instructions
         List<String> instructions = new ArrayList<>();
-        JsonNode instructionNode = node.path("recipeInstructions");
-        if (instructionNode.isArray()) {
-            for (JsonNode instruction : instructionNode) {
-                if (instruction.has("text")) {
-                    instructions.add(instruction.path("text").asText());
-                } else {
-                    instructions.add(instruction.asText());
-                }
-            }
-        }
+        addInstructions(node.path("recipeInstructions"), instructions);
         recipe.setMethods(instructions);
 
         // Extract times
@@ -180,46 +193,48 @@ public class RecipeScraperService {
         return recipe;
     }
 
-    private Recipe parseHtmlRecipe(Document doc) {
+    /** Flattens recipeInstructions: text, HowToSteps, or HowToSections of steps, nested to any depth. */
+    private void addInstructions(JsonNode node, List<String> instructions) {
+        if (node.isArray()) {
+            for (JsonNode item : node) {
+                addInstructions(item, instructions);
+            }
+        } else if (node.has("itemListElement")) {
+            addInstructions(node.path("itemListElement"), instructions);
+        } else {
+            String text = node.has("text") ? node.path("text").asText() : node.isTextual() ? node.asText() : "";
+            if (!text.isBlank()) {
+                instructions.add(text.trim());
+            }
+        }
+    }
+
+    /** Extracts a recipe with the profile's selectors; fields without a selector are left unset. */
+    private Recipe parseHtmlRecipe(Document doc, SelectorProfile profile) {
         Recipe recipe = new Recipe();
 
         // Extract title
-        recipe.setTitle(extractText(doc, "h1, .recipe-title, .entry-title, [itemprop=name]"));
+        recipe.setTitle(extractText(doc, profile.title()));
 
         // Extract description
-        recipe.setDescription(extractText(doc, ".recipe-description, .recipe-summary, [itemprop=description]"));
+        recipe.setDescription(extractText(doc, profile.description()));
 
         // Extract ingredients
-        List<String> ingredients = new ArrayList<>();
-        Elements ingredientElements = doc.select(".recipe-ingredient, .ingredient, [itemprop=recipeIngredient], .recipe-ingredients li");
-        for (Element element : ingredientElements) {
-            String text = element.text().trim();
-            if (!text.isEmpty()) {
-                ingredients.add(text);
-            }
-        }
-        recipe.setIngredients(ingredients);
+        recipe.setIngredients(extractTexts(doc, profile.ingredients()));
 
         // Extract instructions
-        List<String> instructions = new ArrayList<>();
-        Elements instructionElements = doc.select(".recipe-instruction, .instruction, [itemprop=recipeInstructions], .recipe-instructions li, .recipe-method li");
-        for (Element element : instructionElements) {
-            String text = element.text().trim();
-            if (!text.isEmpty()) {
-                instructions.add(text);
-            }
-        }
-        recipe.setMethods(instructions);
+        recipe.setMethods(extractTexts(doc, profile.instructions()));
 
         // Extract times
-        Integer cookTime = extractTimeFromText(extractText(doc, "[itemprop=cookTime], .cook-time, .cooking-time"));
+        Integer cookTime = extractTimeFromText(extractText(doc, profile.cookTime()));
         if (cookTime != null) recipe.setCookTime(cookTime);
 
-        Integer prepTime = extractTimeFromText(extractText(doc, "[itemprop=prepTime], .prep-time, .preparation-time"));
+        Integer prepTime = extractTimeFromText(extractText(doc, profile.prepTime()));
         if (prepTime != null) recipe.setPrepTime(prepTime);
 
-        // Set default servings if not found
-        recipe.setServings(4);
+        // Extract servings, or default
+        Integer servings = extractServingsFromText(extractText(doc, profile.servings()));
+        recipe.setServings(servings != null ? servings : 4);
 
         // Set timestamps
         recipe.setCreationDate(LocalDateTime.now());
@@ -228,11 +243,25 @@ public class RecipeScraperService {
         return recipe;
     }
 
-    private String extractText(Document doc, String selector) {
-        Element element = doc.selectFirst(selector);
+    private String extractText(Document doc, Evaluator selector) {
+        Element element = selector != null ? doc.selectFirst(selector) : null;
         return element != null ? element.text().trim() : "";
     }
 
+    private List<String> extractTexts(Document doc, Evaluator selector) {
+        List<String> texts = new ArrayList<>();
+        if (selector == null) {
+            return texts;
+        }
+        for (Element element : doc.select(selector)) {
+            String text = element.text().trim();
+            if (!text.isEmpty()) {
+                texts.add(text);
+            }
+        }
+        return texts;
+    }
+
     private boolean hasIngredientPattern(String line) {
         Pattern[] patterns = {
                 Pattern.compile("\\d+\\s*(cup|cups|tsp|tbsp|tablespoon|teaspoon|oz|lb|kg|g|ml|l|pound|ounce)", Pattern.CASE_INSENSITIVE),
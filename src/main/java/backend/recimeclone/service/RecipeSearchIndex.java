@@ -0,0 +1,229 @@
+package backend.recimeclone.service;
+
+import backend.recimeclone.models.Recipe;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * In-memory inverted index over recipe text, ranked with BM25.
+ * <p>
+ * Every indexed recipe gets an int ordinal; a term's postings are two parallel int arrays
+ * (ordinals in ascending order, and weighted term frequencies). Updates tombstone the old
+ * ordinal and append a new one, and the index compacts itself once tombstones pile up.
+ * Queries merge the postings of all query terms document-at-a-time, so scoring needs no
+ * per-document accumulator array, only a small top-k heap.
+ * <p>
+ * This class is not thread-safe; {@link RecipeSearchService} guards it with a read/write lock.
+ */
+final class RecipeSearchIndex {
+
+    static final float K1 = 1.2f;
+    static final float B = 0.75f;
+
+    // Field boosts, applied as term-frequency multipliers (a simplified BM25F)
+    static final int TITLE_BOOST = 3;
+    static final int TAG_BOOST = 2;
+    static final int BODY_BOOST = 1;
+
+    /** Result of analysing one recipe, computed outside the lock. */
+    record AnalyzedRecipe(String id, Map<String, Integer> termFrequencies, int length) {}
+
+    record Hit(String id, float score) {}
+
+    private static final class Postings {
+        int[] docs = new int[2];
+        int[] freqs = new int[2];
+        int size;
+
+        void add(int doc, int freq) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            docs[size] = doc;
+            freqs[size] = freq;
+            size++;
+        }
+    }
+
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<String, Integer> ordinalById = new HashMap<>();
+    private String[] idByOrdinal = new String[1024];
+    private int[] lengthByOrdinal = new int[1024];
+    private final BitSet deleted = new BitSet();
+    private int nextOrdinal;
+    private int liveCount;
+    private long totalLength;
+
+    static AnalyzedRecipe analyze(Recipe recipe) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        int length = 0;
+        length += addField(recipe.getTitle(), TITLE_BOOST, frequencies);
+        length += addField(recipe.getDescription(), BODY_BOOST, frequencies);
+        if (recipe.getIngredients() != null) {
+            for (String ingredient : recipe.getIngredients()) {
+                length += addField(ingredient, BODY_BOOST, frequencies);
+            }
+        }
+        if (recipe.getTags() != null) {
+            for (String tag : recipe.getTags()) {
+                length += addField(tag, TAG_BOOST, frequencies);
+            }
+        }
+        return new AnalyzedRecipe(recipe.getId(), frequencies, length);
+    }
+
+    private static int addField(String text, int boost, Map<String, Integer> frequencies) {
+        List<String> terms = RecipeTextAnalyzer.analyze(text);
+        for (String term : terms) {
+            frequencies.merge(term, boost, Integer::sum);
+        }
+        return terms.size();
+    }
+
+    int size() {
+        return liveCount;
+    }
+
+    void put(AnalyzedRecipe recipe) {
+        remove(recipe.id());
+        if (recipe.termFrequencies().isEmpty()) {
+            return;
+        }
+        int ordinal = nextOrdinal++;
+        if (ordinal == idByOrdinal.length) {
+            idByOrdinal = Arrays.copyOf(idByOrdinal, ordinal * 2);
+            lengthByOrdinal = Arrays.copyOf(lengthByOrdinal, ordinal * 2);
+        }
+        idByOrdinal[ordinal] = recipe.id();
+        lengthByOrdinal[ordinal] = recipe.length();
+        ordinalById.put(recipe.id(), ordinal);
+        liveCount++;
+        totalLength += recipe.length();
+        recipe.termFrequencies().forEach((term, freq) ->
+                postings.computeIfAbsent(term, t -> new Postings()).add(ordinal, freq));
+    }
+
+    void remove(String id) {
+        Integer ordinal = ordinalById.remove(id);
+        if (ordinal == null) {
+            return;
+        }
+        deleted.set(ordinal);
+        liveCount--;
+        totalLength -= lengthByOrdinal[ordinal];
+        idByOrdinal[ordinal] = null;
+
+        int tombstones = nextOrdinal - liveCount;
+        if (tombstones > 1024 && tombstones > liveCount / 4) {
+            compact();
+        }
+    }
+
+    /**
+     * Scores every live recipe containing at least one query term and returns the best {@code limit}.
+     * Document frequencies include tombstoned postings until the next compaction, which only
+     * nudges idf slightly.
+     */
+    List<Hit> search(List<String> queryTerms, int limit) {
+        if (liveCount == 0 || queryTerms.isEmpty()) {
+            return List.of();
+        }
+        List<Postings> lists = new ArrayList<>();
+        for (String term : queryTerms) {
+            Postings list = postings.get(term);
+            if (list != null && list.size > 0 && !lists.contains(list)) {
+                lists.add(list);
+            }
+        }
+        if (lists.isEmpty()) {
+            return List.of();
+        }
+
+        int n = lists.size();
+        float[] idfs = new float[n];
+        for (int i = 0; i < n; i++) {
+            int df = lists.get(i).size;
+            idfs[i] = (float) Math.log(1 + (liveCount - df + 0.5) / (df + 0.5));
+        }
+        int[] cursors = new int[n];
+        float avgLength = (float) totalLength / liveCount;
+        PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1, (a, b) -> Float.compare(a.score(), b.score()));
+
+        while (true) {
+            int doc = Integer.MAX_VALUE;
+            for (int i = 0; i < n; i++) {
+                Postings list = lists.get(i);
+                if (cursors[i] < list.size && list.docs[cursors[i]] < doc) {
+                    doc = list.docs[cursors[i]];
+                }
+            }
+            if (doc == Integer.MAX_VALUE) {
+                break;
+            }
+
+            float score = 0;
+            float norm = K1 * (1 - B + B * lengthByOrdinal[doc] / avgLength);
+            for (int i = 0; i < n; i++) {
+                Postings list = lists.get(i);
+                if (cursors[i] < list.size && list.docs[cursors[i]] == doc) {
+                    int freq = list.freqs[cursors[i]];
+                    score += idfs[i] * (freq * (K1 + 1)) / (freq + norm);
+                    cursors[i]++;
+                }
+            }
+
+            if (!deleted.get(doc) && (top.size() < limit || score > top.peek().score())) {
+                top.add(new Hit(idByOrdinal[doc], score));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+        }
+
+        Hit[] ranked = top.toArray(new Hit[0]);
+        Arrays.sort(ranked, (a, b) -> Float.compare(b.score(), a.score()));
+        return Arrays.asList(ranked);
+    }
+
+    /** Drops tombstoned ordinals and renumbers live ones, keeping every postings list sorted. */
+    private void compact() {
+        int[] remap = new int[nextOrdinal];
+        int live = 0;
+        for (int ordinal = 0; ordinal < nextOrdinal; ordinal++) {
+            if (deleted.get(ordinal)) {
+                remap[ordinal] = -1;
+            } else {
+                remap[ordinal] = live;
+                idByOrdinal[live] = idByOrdinal[ordinal];
+                lengthByOrdinal[live] = lengthByOrdinal[ordinal];
+                ordinalById.put(idByOrdinal[live], live);
+                live++;
+            }
+        }
+        Arrays.fill(idByOrdinal, live, nextOrdinal, null);
+
+        postings.values().removeIf(list -> {
+            int kept = 0;
+            for (int i = 0; i < list.size; i++) {
+                int mapped = remap[list.docs[i]];
+                if (mapped >= 0) {
+                    list.docs[kept] = mapped;
+                    list.freqs[kept] = list.freqs[i];
+                    kept++;
+                }
+            }
+            list.size = kept;
+            return kept == 0;
+        });
+
+        nextOrdinal = live;
+        deleted.clear();
+    }
+}
@@ -0,0 +1,161 @@
+package backend.recimeclone.service;
+
+import backend.recimeclone.models.Recipe;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Full-text search over recipe title, description, ingredients and tags.
+ * <p>
+ * The index lives in memory on each instance. It is rebuilt from MongoDB in the background
+ * once the application is ready, and kept current from {@link RecipeChangedEvent}s, which
+ * {@link RecipeChangeFeed} also publishes for writes made by other instances. Changes
+ * that arrive while a rebuild is running are replayed onto the new index before it is swapped in.
+ */
+@Service
+@RequiredArgsConstructor
+public class RecipeSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecipeSearchService.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${recipes.search.rebuild-batch-size:2000}")
+    private int rebuildBatchSize;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private RecipeSearchIndex index = new RecipeSearchIndex();
+    private List<RecipeChangedEvent> pendingDuringRebuild; // non-null while a rebuild is running
+
+    /**
+     * Returns the ids of the best matching recipes, best first.
+     * @param query Free text; analysed the same way as the indexed fields.
+     * @param limit Maximum number of ids to return.
+     */
+    public List<String> search(String query, int limit) {
+        List<String> terms = RecipeTextAnalyzer.analyze(query);
+        List<RecipeSearchIndex.Hit> hits;
+        lock.readLock().lock();
+        try {
+            hits = index.search(terms, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<String> ids = new ArrayList<>(hits.size());
+        for (RecipeSearchIndex.Hit hit : hits) {
+            ids.add(hit.id());
+        }
+        return ids;
+    }
+
+    @EventListener
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        // Analyse outside the lock; only the postings update is serialized
+        RecipeSearchIndex.AnalyzedRecipe analyzed =
+                event.current() != null ? RecipeSearchIndex.analyze(event.current()) : null;
+        lock.writeLock().lock();
+        try {
+            apply(index, event, analyzed);
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.add(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildInBackground() {
+        Thread rebuild = new Thread(this::rebuild, "recipe-search-rebuild");
+        rebuild.setDaemon(true);
+        rebuild.start();
+    }
+
+    /**
+     * Rebuilds the whole index from the database. Recipes are read from a cursor in batches;
+     * each batch is analysed in parallel and then merged into the new index in order.
+     */
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            if (pendingDuringRebuild != null) {
+                logger.info("Search index rebuild already running, skipping");
+                return;
+            }
+            pendingDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long started = System.currentTimeMillis();
+        RecipeSearchIndex rebuilt = new RecipeSearchIndex();
+        try {
+            Query query = new Query(Criteria.where("deletionDate").is(null));
+            query.fields().include("title", "description", "ingredients", "tags");
+            query.cursorBatchSize(rebuildBatchSize);
+
+            List<Recipe> batch = new ArrayList<>(rebuildBatchSize);
+            try (Stream<Recipe> recipes = mongoTemplate.stream(query, Recipe.class)) {
+                for (Recipe recipe : (Iterable<Recipe>) recipes::iterator) {
+                    batch.add(recipe);
+                    if (batch.size() == rebuildBatchSize) {
+                        addBatch(rebuilt, batch);
+                        batch.clear();
+                    }
+                }
+            }
+            addBatch(rebuilt, batch);
+        } catch (RuntimeException e) {
+            logger.error("Search index rebuild failed; keeping the current index", e);
+            lock.writeLock().lock();
+            try {
+                pendingDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (RecipeChangedEvent event : pendingDuringRebuild) {
+                apply(rebuilt, event, event.current() != null ? RecipeSearchIndex.analyze(event.current()) : null);
+            }
+            pendingDuringRebuild = null;
+            index = rebuilt;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Search index rebuilt with {} recipes in {} ms", rebuilt.size(), System.currentTimeMillis() - started);
+    }
+
+    private static void addBatch(RecipeSearchIndex target, List<Recipe> batch) {
+        List<RecipeSearchIndex.AnalyzedRecipe> analyzed = batch.parallelStream()
+                .map(RecipeSearchIndex::analyze)
+                .toList();
+        analyzed.forEach(target::put);
+    }
+
+    private static void apply(RecipeSearchIndex target, RecipeChangedEvent event,
+                              RecipeSearchIndex.AnalyzedRecipe analyzed) {
+        if (analyzed != null) {
+            target.put(analyzed);
+        } else {
+            target.remove(event.recipeId());
+        }
+    }
+}
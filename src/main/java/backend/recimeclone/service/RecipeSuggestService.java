@@ -0,0 +1,186 @@
+package backend.recimeclone.service;
+
+import backend.recimeclone.dtos.SuggestionDto;
+import backend.recimeclone.models.ParsedIngredient;
+import backend.recimeclone.models.Recipe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Typeahead completions for recipe titles, tags and ingredient names.
+ * <p>
+ * Lookups read an immutable {@link RecipeSuggestTrie} through a volatile reference and never
+ * lock. The trie is rebuilt from MongoDB in the background once the application is ready, and
+ * the new one is swapped in with a single write. After that, every rebuild interval checks
+ * whether any recipe was written since the current trie was built: the newest updateDate in
+ * the database (soft deletes stamp it too) is compared with the one seen when the build
+ * started, so writes made through any instance count. A {@link RecipeChangedEvent} also marks
+ * a rebuild as needed, which covers a write that committed after a newer one was seen.
+ * Suggestions are thus normally at most one rebuild interval plus one build behind the database.
+ * Popularity is the number of recipes using a tag or ingredient; for titles, one plus the rating.
+ * <p>
+ * A build streams the recipes from a cursor and only keeps one tally per distinct suggestion.
+ * The trie itself is then built straight into primitive arrays.
+ */
+@Service
+public class RecipeSuggestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecipeSuggestService.class);
+
+    static final String TITLE = "title";
+    static final String TAG = "tag";
+    static final String INGREDIENT = "ingredient";
+
+    private final MongoTemplate mongoTemplate;
+    private final int maxResults;
+
+    private volatile RecipeSuggestTrie trie = RecipeSuggestTrie.EMPTY;
+    private volatile LocalDateTime builtFrom; // Newest updateDate when the current trie's build started
+    private final AtomicBoolean changed = new AtomicBoolean();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    /** Popularity of one suggestion, summed while reading recipes. */
+    private static final class Tally {
+        final String text;
+        final String type;
+        long weight;
+
+        Tally(String text, String type) {
+            this.text = text;
+            this.type = type;
+        }
+    }
+
+    public RecipeSuggestService(MongoTemplate mongoTemplate,
+                                @Value("${recipes.suggest.max-results:10}") int maxResults) {
+        this.mongoTemplate = mongoTemplate;
+        this.maxResults = maxResults;
+    }
+
+    /**
+     * Returns completions for what the user has typed so far, most popular first.
+     * @param prefix The typed text; case and repeated spaces are ignored.
+     * @param limit Maximum number of completions, capped at recipes.suggest.max-results.
+     */
+    public List<SuggestionDto> suggest(String prefix, int limit) {
+        List<RecipeSuggestTrie.Suggestion> completions = trie.complete(prefix, Math.min(limit, maxResults));
+        List<SuggestionDto> result = new ArrayList<>(completions.size());
+        for (RecipeSuggestTrie.Suggestion completion : completions) {
+            result.add(new SuggestionDto(completion.text(), completion.type()));
+        }
+        return result;
+    }
+
+    @EventListener
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        changed.set(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildInBackground() {
+        Thread rebuild = new Thread(this::rebuild, "recipe-suggest-rebuild");
+        rebuild.setDaemon(true);
+        rebuild.start();
+    }
+
+    @Scheduled(fixedDelayString = "${recipes.suggest.rebuild-interval:5m}",
+            initialDelayString = "${recipes.suggest.rebuild-interval:5m}")
+    public void rebuildIfChanged() {
+        try {
+            if (changed.get() || isAfter(latestUpdate(), builtFrom)) {
+                rebuild();
+            }
+        } catch (RuntimeException e) {
+            logger.error("Suggestion change check failed; checking again on the next interval", e);
+        }
+    }
+
+    /** Builds a new trie from the database and swaps it in. */
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            // Cleared first: a change during the build marks the next build as needed
+            changed.set(false);
+            long started = System.currentTimeMillis();
+            LocalDateTime latest = latestUpdate();
+            RecipeSuggestTrie rebuilt = RecipeSuggestTrie.build(collectSuggestions(), maxResults);
+            trie = rebuilt;
+            builtFrom = latest;
+            logger.info("Suggestion trie rebuilt: {} suggestions, {} nodes in {} ms",
+                    rebuilt.size(), rebuilt.nodeCount(), System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            changed.set(true);
+            logger.error("Suggestion trie rebuild failed; keeping the current trie", e);
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    /** The newest updateDate of any recipe, tombstones included, read from the (updateDate, _id) index. */
+    private LocalDateTime latestUpdate() {
+        Query query = new Query().with(Sort.by(Sort.Direction.DESC, "updateDate")).limit(1);
+        query.fields().include("updateDate");
+        Recipe latest = mongoTemplate.findOne(query, Recipe.class);
+        return latest != null ? latest.getUpdateDate() : null;
+    }
+
+    private static boolean isAfter(LocalDateTime latest, LocalDateTime builtFrom) {
+        return latest != null && (builtFrom == null || latest.isAfter(builtFrom));
+    }
+
+    private List<RecipeSuggestTrie.Suggestion> collectSuggestions() {
+        // Keyed by type and normalized text, so "Pasta" and "pasta" tags add up to one suggestion
+        Map<String, Tally> byKey = new HashMap<>();
+        Query query = new Query(Criteria.where("deletionDate").is(null));
+        query.fields().include("title", "tags", "rating", "ingredients", "parsedIngredients");
+        try (Stream<Recipe> recipes = mongoTemplate.stream(query, Recipe.class)) {
+            recipes.forEach(recipe -> {
+                add(byKey, recipe.getTitle(), TITLE, 1 + Math.max(0, recipe.getRating()));
+                if (recipe.getTags() != null) {
+                    for (String tag : recipe.getTags()) {
+                        add(byKey, tag, TAG, 1);
+                    }
+                }
+                List<ParsedIngredient> parsed = recipe.getParsedIngredients() != null
+                        ? recipe.getParsedIngredients()
+                        : RecipeIngredientParser.parseAll(recipe.getIngredients());
+                for (ParsedIngredient ingredient : parsed) {
+                    add(byKey, ingredient.getName(), INGREDIENT, 1);
+                }
+            });
+        }
+        List<RecipeSuggestTrie.Suggestion> suggestions = new ArrayList<>(byKey.size());
+        for (Tally tally : byKey.values()) {
+            suggestions.add(new RecipeSuggestTrie.Suggestion(tally.text, tally.type, tally.weight));
+        }
+        return suggestions;
+    }
+
+    private static void add(Map<String, Tally> byKey, String text, String type, long weight) {
+        if (text == null || text.isBlank()) {
+            return;
+        }
+        String display = text.trim();
+        byKey.computeIfAbsent(type + ':' + RecipeSuggestTrie.normalize(display), key -> new Tally(display, type))
+                .weight += weight;
+    }
+}
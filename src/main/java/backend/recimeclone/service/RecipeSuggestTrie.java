@@ -0,0 +1,368 @@
+package backend.recimeclone.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Immutable prefix index for typeahead, packed into a handful of primitive arrays.
+ * <p>
+ * Nodes are numbered so that the children of a node are contiguous and sorted by label, and each
+ * node stores the ids of the best {@code k} suggestions below it, precomputed at build time. A
+ * lookup walks one node per prefix character (binary search among the children) and returns the
+ * stored list, so its cost depends only on the prefix length, never on how many suggestions match.
+ * A key's tail is not spelled out below the point where no other key shares it, and a node whose
+ * best list is the same as its only child's shares the child's slice.
+ * <p>
+ * Instances never change after {@link #build}, so any number of threads may read them without locking.
+ */
+final class RecipeSuggestTrie {
+
+    /**
+     * One completion.
+     * @param type What the text is: "title", "tag" or "ingredient".
+     * @param weight Popularity; higher is suggested first.
+     */
+    record Suggestion(String text, String type, long weight) {}
+
+    // Keys are cut to this many chars, so long shared phrases do not become long chains of nodes
+    static final int MAX_KEY_LENGTH = 24;
+
+    static final RecipeSuggestTrie EMPTY = build(List.of(), 1);
+
+    private final Suggestion[] suggestions;
+    private final char[] labels;      // label of the edge into each node
+    private final int[] firstChild;
+    private final int[] childCount;
+    private final int[] bestOffset;   // slice of best into this node's top suggestions
+    private final byte[] bestCount;
+    private final int[] best;
+
+    private RecipeSuggestTrie(Suggestion[] suggestions, char[] labels, int[] firstChild, int[] childCount,
+                              int[] bestOffset, byte[] bestCount, int[] best) {
+        this.suggestions = suggestions;
+        this.labels = labels;
+        this.firstChild = firstChild;
+        this.childCount = childCount;
+        this.bestOffset = bestOffset;
+        this.bestCount = bestCount;
+        this.best = best;
+    }
+
+    int size() {
+        return suggestions.length;
+    }
+
+    int nodeCount() {
+        return labels.length;
+    }
+
+    /** Lower-cases and collapses whitespace; used for both keys and typed prefixes. */
+    static String normalize(String text) {
+        StringBuilder normalized = new StringBuilder(text.length());
+        boolean space = true; // drops leading whitespace
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                if (!space) {
+                    normalized.append(' ');
+                    space = true;
+                }
+            } else {
+                normalized.append(c);
+                space = false;
+            }
+        }
+        return normalized.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /** Returns up to {@code limit} suggestions for the prefix, most popular first. */
+    List<Suggestion> complete(String prefix, int limit) {
+        String key = normalize(prefix);
+        int node = 0;
+        int depth = 0;
+        // A node without children ends the walk early: below it there is only one key (or keys
+        // were cut at MAX_KEY_LENGTH), so the rest of the prefix is checked against the texts
+        while (depth < key.length() && childCount[node] > 0) {
+            node = child(node, key.charAt(depth++));
+            if (node < 0) {
+                return List.of();
+            }
+        }
+        boolean verify = depth < key.length();
+        List<Suggestion> result = new ArrayList<>(Math.min(limit, bestCount[node]));
+        for (int i = 0; i < bestCount[node] && result.size() < limit; i++) {
+            Suggestion suggestion = suggestions[best[bestOffset[node] + i]];
+            if (!verify || startsWordWith(normalize(suggestion.text()), key)) {
+                result.add(suggestion);
+            }
+        }
+        return result;
+    }
+
+    private static boolean startsWordWith(String text, String prefix) {
+        int start = 0;
+        while (!text.startsWith(prefix, start)) {
+            int space = text.indexOf(' ', start);
+            if (space < 0) {
+                return false;
+            }
+            start = space + 1;
+        }
+        return true;
+    }
+
+    private int child(int node, char label) {
+        int low = firstChild[node];
+        int high = low + childCount[node] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (labels[mid] < label) {
+                low = mid + 1;
+            } else if (labels[mid] > label) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Builds the trie. Every suggestion is reachable from its whole text and from every word
+     * inside it, so "chick" completes "Spicy Chicken Stir-fry".
+     * @param k How many suggestions are kept per node; the most a lookup can return. At most 127.
+     */
+    static RecipeSuggestTrie build(Collection<Suggestion> suggestions, int k) {
+        Suggestion[] byId = suggestions.toArray(new Suggestion[0]);
+
+        // (key, suggestion id) pairs sorted by key: the subtree of any node is a contiguous range.
+        // Counted first, so the pairs go straight into arrays of the right size.
+        String[] texts = new String[byId.length];
+        int pairs = 0;
+        for (int id = 0; id < byId.length; id++) {
+            texts[id] = normalize(byId[id].text());
+            for (int start = 0; start < texts[id].length(); start = nextWord(texts[id], start)) {
+                pairs++;
+            }
+        }
+        String[] unsortedKeys = new String[pairs];
+        int[] unsortedIds = new int[pairs];
+        int pair = 0;
+        for (int id = 0; id < byId.length; id++) {
+            String text = texts[id];
+            for (int start = 0; start < text.length(); start = nextWord(text, start)) {
+                unsortedKeys[pair] = text.substring(start, Math.min(text.length(), start + MAX_KEY_LENGTH));
+                unsortedIds[pair++] = id;
+            }
+        }
+        int[] order = new int[pairs];
+        for (int i = 0; i < pairs; i++) {
+            order[i] = i;
+        }
+        sortByKey(order, unsortedKeys);
+        String[] keys = new String[pairs];
+        int[] ids = new int[pairs];
+        for (int i = 0; i < pairs; i++) {
+            keys[i] = unsortedKeys[order[i]];
+            ids[i] = unsortedIds[order[i]];
+        }
+
+        Builder builder = new Builder(byId, keys, ids, Math.min(k, Byte.MAX_VALUE));
+        builder.addNode('\0');
+        builder.fill(0, 0, keys.length, 0);
+        return builder.finish();
+    }
+
+    /** Start of the word after the one at {@code start}, or the text's length after the last word. */
+    private static int nextWord(String text, int start) {
+        int space = text.indexOf(' ', start);
+        return space < 0 ? text.length() : space + 1;
+    }
+
+    /** Stable bottom-up merge sort of {@code order} by {@code keys[order[i]]}, on primitive ints. */
+    private static void sortByKey(int[] order, String[] keys) {
+        int[] from = order;
+        int[] to = new int[order.length];
+        for (int width = 1; width < order.length; width *= 2) {
+            for (int low = 0; low < order.length; low += 2 * width) {
+                int mid = Math.min(low + width, order.length);
+                int high = Math.min(low + 2 * width, order.length);
+                int left = low;
+                int right = mid;
+                for (int i = low; i < high; i++) {
+                    if (left < mid && (right >= high || keys[from[left]].compareTo(keys[from[right]]) <= 0)) {
+                        to[i] = from[left++];
+                    } else {
+                        to[i] = from[right++];
+                    }
+                }
+            }
+            int[] swap = from;
+            from = to;
+            to = swap;
+        }
+        if (from != order) {
+            System.arraycopy(from, 0, order, 0, order.length);
+        }
+    }
+
+    /** Growable arrays used only while building. */
+    private static final class Builder {
+        final Suggestion[] suggestions;
+        final String[] keys;
+        final int[] ids;
+        final int k;
+
+        char[] labels = new char[1024];
+        int[] firstChild = new int[1024];
+        int[] childCount = new int[1024];
+        int[] bestOffset = new int[1024];
+        byte[] bestCount = new byte[1024];
+        int nodes;
+        int[] best = new int[1024];
+        int bestSize;
+
+        Builder(Suggestion[] suggestions, String[] keys, int[] ids, int k) {
+            this.suggestions = suggestions;
+            this.keys = keys;
+            this.ids = ids;
+            this.k = k;
+        }
+
+        int addNode(char label) {
+            if (nodes == labels.length) {
+                int size = nodes * 2;
+                labels = Arrays.copyOf(labels, size);
+                firstChild = Arrays.copyOf(firstChild, size);
+                childCount = Arrays.copyOf(childCount, size);
+                bestOffset = Arrays.copyOf(bestOffset, size);
+                bestCount = Arrays.copyOf(bestCount, size);
+            }
+            labels[nodes] = label;
+            return nodes++;
+        }
+
+        /** Fills in the subtree of {@code node} from keys[from, to), which all share their first depth chars. */
+        int[] fill(int node, int from, int to, int depth) {
+            if (to - from == 1) {
+                // A single key left: stop here instead of spelling out its tail one node per char
+                int[] top = {ids[from]};
+                bestOffset[node] = append(top);
+                bestCount[node] = 1;
+                return top;
+            }
+
+            // Keys ending here sort first; the rest group by their next char
+            int start = from;
+            while (start < to && keys[start].length() == depth) {
+                start++;
+            }
+
+            List<int[]> groups = new ArrayList<>(); // {from, to} per child
+            for (int i = start; i < to; ) {
+                char label = keys[i].charAt(depth);
+                int end = i + 1;
+                while (end < to && keys[end].charAt(depth) == label) {
+                    end++;
+                }
+                groups.add(new int[]{i, end});
+                i = end;
+            }
+
+            int first = nodes;
+            for (int[] group : groups) {
+                addNode(keys[group[0]].charAt(depth));
+            }
+            firstChild[node] = first;
+            childCount[node] = groups.size();
+
+            // The ids of the keys ending here, then the best of each child
+            int[] candidates = new int[start - from + groups.size() * k];
+            int count = 0;
+            for (int i = from; i < start; i++) {
+                candidates[count++] = ids[i];
+            }
+            int[] onlyChildBest = null;
+            for (int g = 0; g < groups.size(); g++) {
+                int[] childBest = fill(first + g, groups.get(g)[0], groups.get(g)[1], depth + 1);
+                System.arraycopy(childBest, 0, candidates, count, childBest.length);
+                count += childBest.length;
+                onlyChildBest = childBest;
+            }
+
+            int[] top = top(candidates, count);
+            if (groups.size() == 1 && Arrays.equals(top, onlyChildBest)) {
+                bestOffset[node] = bestOffset[first];
+            } else {
+                bestOffset[node] = append(top);
+            }
+            bestCount[node] = (byte) top.length;
+            return top;
+        }
+
+        int append(int[] top) {
+            if (bestSize + top.length > best.length) {
+                best = Arrays.copyOf(best, Math.max(best.length * 2, bestSize + top.length));
+            }
+            System.arraycopy(top, 0, best, bestSize, top.length);
+            bestSize += top.length;
+            return bestSize - top.length;
+        }
+
+        /** The k distinct ids with the highest weight; ties go to the shorter, then alphabetically first text. */
+        int[] top(int[] candidates, int count) {
+            int[] top = new int[Math.min(k, count)];
+            int size = 0;
+            for (int c = 0; c < count; c++) {
+                int id = candidates[c];
+                if (contains(top, size, id)) {
+                    continue;
+                }
+                if (size < top.length) {
+                    top[size++] = id;
+                } else if (better(id, top[size - 1])) {
+                    top[size - 1] = id;
+                } else {
+                    continue;
+                }
+                // Insertion step keeps top sorted best first
+                for (int i = size - 1; i > 0 && better(top[i], top[i - 1]); i--) {
+                    int swap = top[i];
+                    top[i] = top[i - 1];
+                    top[i - 1] = swap;
+                }
+            }
+            return size == top.length ? top : Arrays.copyOf(top, size);
+        }
+
+        private boolean better(int a, int b) {
+            Suggestion x = suggestions[a];
+            Suggestion y = suggestions[b];
+            if (x.weight() != y.weight()) {
+                return x.weight() > y.weight();
+            }
+            if (x.text().length() != y.text().length()) {
+                return x.text().length() < y.text().length();
+            }
+            return x.text().compareTo(y.text()) < 0;
+        }
+
+        private static boolean contains(int[] array, int size, int value) {
+            for (int i = 0; i < size; i++) {
+                if (array[i] == value) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        RecipeSuggestTrie finish() {
+            return new RecipeSuggestTrie(suggestions,
+                    Arrays.copyOf(labels, nodes), Arrays.copyOf(firstChild, nodes), Arrays.copyOf(childCount, nodes),
+                    Arrays.copyOf(bestOffset, nodes), Arrays.copyOf(bestCount, nodes), Arrays.copyOf(best, bestSize));
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package backend.recimeclone.service;
+
+import backend.recimeclone.dtos.RecipeCursor;
+import backend.recimeclone.dtos.RecipeSyncDto;
+import backend.recimeclone.models.Recipe;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Delta sync for offline clients: everything created, updated or deleted after a high-water
+ * mark of (updateDate, id), oldest first.
+ * <p>
+ * Every write stamps updateDate, soft deletes included, so one ascending keyset scan over the
+ * (updateDate, _id) index (or the owner-scoped one) finds both changes and tombstones. Changes
+ * younger than the settle time are held back: updateDate comes from the writing instance's
+ * clock before the write commits, so a write can become visible with a slightly older
+ * updateDate than one already synced. Holding back the newest changes keeps those from being
+ * skipped by a mark that has already moved past them.
+ */
+@Service
+@RequiredArgsConstructor
+public class RecipeSyncService {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${recipes.sync.settle-time:5s}")
+    private Duration settleTime;
+
+    @Value("${recipes.soft-delete.retention:30d}")
+    private Duration retention;
+
+    /**
+     * Returns one page of changes after the given mark.
+     * @param userId Only sync this owner's recipes; null for all.
+     * @param since The mark returned by the previous sync; null for a first, full sync, which skips tombstones.
+     * @param fields Fields to read from changed recipes; null for whole documents.
+     * @param view Turns a changed recipe into what the client receives.
+     * @throws IllegalArgumentException if the mark cannot be decoded.
+     */
+    public <T> RecipeSyncDto<T> changesSince(String userId, String since, int pageSize,
+                                             Collection<String> fields, Function<Recipe, T> view) {
+        RecipeCursor after = since == null || since.isBlank() ? null : RecipeCursor.decode(since);
+        LocalDateTime now = LocalDateTime.now();
+        if (after != null && after.updateDate().isBefore(now.minus(retention))) {
+            return new RecipeSyncDto<>(List.of(), List.of(), null, false, true);
+        }
+
+        Criteria criteria = Criteria.where("updateDate").lte(now.minus(settleTime));
+        if (userId != null) {
+            criteria = criteria.and("userId").is(userId);
+        }
+        if (after == null) {
+            criteria = criteria.and("deletionDate").is(null);
+        } else {
+            criteria = criteria.orOperator(
+                    Criteria.where("updateDate").gt(after.updateDate()),
+                    Criteria.where("updateDate").is(after.updateDate()).and("id").gt(after.id()));
+        }
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "updateDate", "id"))
+                .limit(pageSize + 1);
+        if (fields != null) {
+            query.fields().include(fields.toArray(new String[0])).include("updateDate", "deletionDate");
+        }
+
+        List<Recipe> rows = mongoTemplate.find(query, Recipe.class);
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows = rows.subList(0, pageSize);
+        }
+        List<T> changed = new ArrayList<>();
+        List<String> deleted = new ArrayList<>();
+        for (Recipe recipe : rows) {
+            if (recipe.getDeletionDate() != null) {
+                deleted.add(recipe.getId());
+            } else {
+                changed.add(view.apply(recipe));
+            }
+        }
+        String mark = rows.isEmpty()
+                ? (after == null ? null : after.encode())
+                : RecipeCursor.after(rows.get(rows.size() - 1)).encode();
+        return new RecipeSyncDto<>(changed, deleted, mark, hasMore, false);
+    }
+}
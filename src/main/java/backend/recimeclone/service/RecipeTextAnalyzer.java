@@ -0,0 +1,105 @@
+package backend.recimeclone.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Turns recipe text into index terms: splits on anything that is not a letter or digit,
+ * lower-cases, drops stop words and applies a light English suffix stemmer so that
+ * "tomatoes", "baked" and "chopping" match "tomato", "bake" and "chop".
+ * The same analysis must be applied to documents and queries.
+ */
+final class RecipeTextAnalyzer {
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "into", "is", "it",
+            "of", "on", "or", "the", "to", "with", "your", "you", "this", "that", "then");
+
+    private RecipeTextAnalyzer() {
+    }
+
+    static List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        analyzeInto(text, terms);
+        return terms;
+    }
+
+    static void analyzeInto(String text, List<String> terms) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        int length = text.length();
+        int start = -1;
+        for (int i = 0; i <= length; i++) {
+            boolean wordChar = i < length && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                addTerm(text.substring(start, i).toLowerCase(Locale.ROOT), terms);
+                start = -1;
+            }
+        }
+    }
+
+    private static void addTerm(String token, List<String> terms) {
+        if (token.length() < 2 || STOP_WORDS.contains(token)) {
+            return;
+        }
+        terms.add(stem(token));
+    }
+
+    static String stem(String word) {
+        if (word.length() <= 3 || !Character.isLetter(word.charAt(word.length() - 1))) {
+            return word;
+        }
+        String stem = word;
+        if (stem.endsWith("ies") && stem.length() > 4) {
+            stem = stem.substring(0, stem.length() - 3) + "y";
+        } else if (stem.endsWith("oes") || stem.endsWith("ches") || stem.endsWith("shes")
+                || stem.endsWith("sses") || stem.endsWith("xes")) {
+            stem = stem.substring(0, stem.length() - 2);
+        } else if (stem.endsWith("s") && !stem.endsWith("ss") && !stem.endsWith("us")) {
+            stem = stem.substring(0, stem.length() - 1);
+        }
+
+        if (stem.endsWith("ing")) {
+            stem = stripVerbSuffix(stem, 3);
+        } else if (stem.endsWith("ed")) {
+            stem = stripVerbSuffix(stem, 2);
+        }
+
+        // Drop a final silent 'e' so "bake", "baked" and "baking" all end up as "bak"
+        if (stem.length() > 3 && stem.endsWith("e") && !stem.endsWith("ee")) {
+            stem = stem.substring(0, stem.length() - 1);
+        }
+        return stem;
+    }
+
+    private static String stripVerbSuffix(String word, int suffixLength) {
+        String base = word.substring(0, word.length() - suffixLength);
+        if (base.length() < 3 || !containsVowel(base)) {
+            return word; // "spring", "seed", "red" are not inflections
+        }
+        int last = base.length() - 1;
+        if (base.charAt(last) == base.charAt(last - 1) && !isVowel(base.charAt(last))
+                && "lsz".indexOf(base.charAt(last)) < 0) {
+            base = base.substring(0, last); // chopping -> chop, stirred -> stir
+        }
+        return base;
+    }
+
+    private static boolean containsVowel(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (isVowel(s.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isVowel(char c) {
+        return c == 'a' || c == 'e' || c == 'i' || c == 'o' || c == 'u' || c == 'y';
+    }
+}
@@ -0,0 +1,523 @@
+package backend.recimeclone.service;
+
+import backend.recimeclone.dtos.UrlImportJobDto;
+import backend.recimeclone.models.Recipe;
+import backend.recimeclone.models.UrlImportJob;
+import backend.recimeclone.repos.RecipeRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Batch URL imports that run in the background: a job is accepted right away and its URLs
+ * are scraped on a dedicated, fixed-size pool instead of request threads.
+ * <p>
+ * The pool size is the global limit on scrapes in flight. On top of it, at most
+ * recipes.url-import.per-host scrapes of one host run at once; further URLs of that host wait in
+ * a per-host queue without holding a pool thread, so one site with many links cannot starve the
+ * others. Extracted recipes are saved in batches with one {@code saveAll} each.
+ * <p>
+ * A job runs on the instance that accepted it, but its state lives in the UrlImportJobs
+ * collection, so any instance can answer for it and it survives restarts. The running instance
+ * writes the jobs that changed every recipes.url-import.progress-interval, in one bulk write,
+ * and renews each job's aliveUntil while it works. If that instance stops, its unfinished jobs
+ * are reported as "interrupted". Followers on any instance are served by one query per interval
+ * for all the jobs they follow. Jobs are removed by a TTL index recipes.url-import.job-retention
+ * after they finish or are interrupted.
+ */
+@Service
+public class RecipeUrlImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecipeUrlImportService.class);
+
+    static final String RUNNING = "running";
+    static final String DONE = "done";
+    static final String INTERRUPTED = "interrupted";
+
+    private final RecipeScraperService scraperService;
+    private final RecipeRepository recipeRepository;
+    private final MongoTemplate mongoTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ExecutorService executor;
+    private final int perHostLimit;
+    private final int saveBatchSize;
+    private final int maxPendingUrls;
+    private final Duration jobRetention;
+    private final Duration staleAfter;
+
+    private final Map<String, Job> activeJobs = new ConcurrentHashMap<>(); // Running here, or not yet written as done
+    private final Map<String, Host> hosts = new HashMap<>(); // guarded by itself
+    private final AtomicInteger pendingUrls = new AtomicInteger();
+    private final Map<SseEmitter, Follower> followers = new ConcurrentHashMap<>();
+
+    public RecipeUrlImportService(RecipeScraperService scraperService,
+                                  RecipeRepository recipeRepository,
+                                  MongoTemplate mongoTemplate,
+                                  ApplicationEventPublisher eventPublisher,
+                                  @Value("${recipes.url-import.threads:16}") int threads,
+                                  @Value("${recipes.url-import.per-host:2}") int perHostLimit,
+                                  @Value("${recipes.url-import.save-batch-size:20}") int saveBatchSize,
+                                  @Value("${recipes.url-import.max-pending-urls:5000}") int maxPendingUrls,
+                                  @Value("${recipes.url-import.job-retention:1h}") Duration jobRetention,
+                                  @Value("${recipes.url-import.stale-after:1m}") Duration staleAfter) {
+        this.scraperService = scraperService;
+        this.recipeRepository = recipeRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.eventPublisher = eventPublisher;
+        this.perHostLimit = perHostLimit;
+        this.saveBatchSize = saveBatchSize;
+        this.maxPendingUrls = maxPendingUrls;
+        this.jobRetention = jobRetention;
+        this.staleAfter = staleAfter;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "recipe-url-import-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /** URLs waiting for or holding a scrape slot of one host. */
+    private static final class Host {
+        final Queue<Task> waiting = new ArrayDeque<>();
+        int running;
+    }
+
+    private record Task(Job job, int index, String host) {}
+
+    /** A job running on this instance. Its state is written to the database by {@link #writeProgress()}. */
+    private static final class Job {
+        final String id = UUID.randomUUID().toString();
+        final String userId;
+        final LocalDateTime creationDate = LocalDateTime.now();
+        final UrlImportJob.Item[] items;
+        final List<Integer> unsaved = new ArrayList<>(); // indexes of extracted recipes waiting for their batch
+        final Recipe[] extracted;
+        int unscraped;
+        int saved;
+        int failed;
+        LocalDateTime finishedAt;
+        boolean interrupted;
+        boolean dirty; // Changed since it was last written
+        LocalDateTime writtenAt;
+
+        Job(String userId, List<String> urls) {
+            this.userId = userId;
+            this.items = new UrlImportJob.Item[urls.size()];
+            for (int i = 0; i < items.length; i++) {
+                items[i] = new UrlImportJob.Item(urls.get(i), "queued", null, null);
+            }
+            this.extracted = new Recipe[urls.size()];
+            this.unscraped = urls.size();
+        }
+
+        boolean done() {
+            return saved + failed == items.length;
+        }
+
+        String status() {
+            return interrupted ? INTERRUPTED : done() ? DONE : RUNNING;
+        }
+    }
+
+    /** An event stream following a job, and the version of the job it last sent. */
+    private static final class Follower {
+        final String jobId;
+        long sentVersion;
+        String sentStatus;
+
+        Follower(String jobId) {
+            this.jobId = jobId;
+        }
+    }
+
+    /**
+     * Accepts a job, stores it and starts scraping.
+     * @return The job's initial state, or empty if too many URLs are already pending on this instance.
+     */
+    public Optional<UrlImportJobDto> submit(String userId, List<String> urls) {
+        if (pendingUrls.addAndGet(urls.size()) > maxPendingUrls) {
+            pendingUrls.addAndGet(-urls.size());
+            return Optional.empty();
+        }
+        Job job = new Job(userId, urls);
+        UrlImportJob document;
+        try {
+            synchronized (job) {
+                document = toDocument(job, LocalDateTime.now());
+                job.writtenAt = document.getCreationDate();
+            }
+            mongoTemplate.insert(document);
+        } catch (RuntimeException e) {
+            pendingUrls.addAndGet(-urls.size());
+            throw e;
+        }
+        activeJobs.put(job.id, job);
+        for (int i = 0; i < urls.size(); i++) {
+            String host = hostOf(urls.get(i));
+            if (host == null) {
+                finishScrape(job, i, null, "Invalid URL");
+            } else {
+                dispatch(new Task(job, i, host));
+            }
+        }
+        logger.info("URL import job {} accepted for user {}: {} URLs", job.id, userId, urls.size());
+        return Optional.of(toDto(document, document.getCreationDate()));
+    }
+
+    /** The job's current state, if it exists and belongs to the user. */
+    public Optional<UrlImportJobDto> find(String jobId, String userId) {
+        UrlImportJob job = mongoTemplate.findOne(
+                Query.query(Criteria.where("id").is(jobId).and("userId").is(userId)), UrlImportJob.class);
+        return job == null ? Optional.empty() : Optional.of(toDto(job, LocalDateTime.now()));
+    }
+
+    /**
+     * Follows a job over server-sent events: a "job" event with the full state now and after
+     * every change, until the job is done or interrupted.
+     */
+    public Optional<SseEmitter> subscribe(String jobId, String userId, long timeoutMillis) {
+        UrlImportJob job = mongoTemplate.findOne(
+                Query.query(Criteria.where("id").is(jobId).and("userId").is(userId)), UrlImportJob.class);
+        if (job == null) {
+            return Optional.empty();
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        emitter.onCompletion(() -> followers.remove(emitter));
+        emitter.onTimeout(() -> followers.remove(emitter));
+        emitter.onError(e -> followers.remove(emitter));
+        Follower follower = new Follower(jobId);
+        UrlImportJobDto state = toDto(job, LocalDateTime.now());
+        follower.sentVersion = job.getVersion();
+        follower.sentStatus = state.status();
+        if (send(emitter, state) && RUNNING.equals(state.status())) {
+            followers.put(emitter, follower);
+        }
+        return Optional.of(emitter);
+    }
+
+    private void dispatch(Task task) {
+        synchronized (hosts) {
+            Host host = hosts.computeIfAbsent(task.host(), h -> new Host());
+            if (host.running < perHostLimit) {
+                host.running++;
+                executor.execute(() -> run(task));
+            } else {
+                host.waiting.add(task);
+            }
+        }
+    }
+
+    /** Hands the host's slot to its next waiting URL, or releases it. */
+    private void release(String hostName) {
+        synchronized (hosts) {
+            Host host = hosts.get(hostName);
+            Task next = host.waiting.poll();
+            if (next != null) {
+                executor.execute(() -> run(next));
+            } else if (--host.running == 0) {
+                hosts.remove(hostName);
+            }
+        }
+    }
+
+    private void run(Task task) {
+        Job job = task.job();
+        String url = job.items[task.index()].getUrl();
+        update(job, task.index(), new UrlImportJob.Item(url, "extracting", null, null));
+        Recipe recipe = null;
+        String error = null;
+        try {
+            recipe = scraperService.scrapeRecipeFromUrl(url);
+            if (recipe.getTitle() == null || recipe.getTitle().isEmpty()) {
+                recipe = null;
+                error = "Could not extract a valid recipe from the provided URL";
+            }
+        } catch (Exception e) {
+            logger.warn("URL import job {}: failed to extract {}: {}", job.id, url, e.getMessage());
+            error = "Failed to extract recipe: " + e.getMessage();
+        } finally {
+            release(task.host());
+        }
+        finishScrape(job, task.index(), recipe, error);
+    }
+
+    /** Records a scrape's outcome and saves the job's extracted recipes once a batch is full or nothing is left to scrape. */
+    private void finishScrape(Job job, int index, Recipe recipe, String error) {
+        List<Integer> batch = List.of();
+        synchronized (job) {
+            job.unscraped--;
+            String url = job.items[index].getUrl();
+            if (recipe == null) {
+                job.items[index] = new UrlImportJob.Item(url, "failed", null, error);
+                job.failed++;
+                pendingUrls.decrementAndGet();
+            } else {
+                recipe.setUserId(job.userId);
+                job.extracted[index] = recipe;
+                job.unsaved.add(index);
+                job.items[index] = new UrlImportJob.Item(url, "extracted", null, null);
+            }
+            if (job.unsaved.size() >= saveBatchSize || (job.unscraped == 0 && !job.unsaved.isEmpty())) {
+                batch = new ArrayList<>(job.unsaved);
+                job.unsaved.clear();
+            }
+            changed(job);
+        }
+        if (!batch.isEmpty()) {
+            save(job, batch);
+        }
+    }
+
+    private void save(Job job, List<Integer> batch) {
+        List<Recipe> recipes = new ArrayList<>(batch.size());
+        for (int index : batch) {
+            recipes.add(job.extracted[index]);
+        }
+        List<Recipe> savedRecipes = null;
+        String error = null;
+        try {
+            savedRecipes = recipeRepository.saveAll(recipes);
+        } catch (RuntimeException e) {
+            logger.error("URL import job {}: failed to save {} recipes", job.id, recipes.size(), e);
+            error = "Failed to save recipe";
+        }
+        if (savedRecipes != null) {
+            savedRecipes.forEach(saved -> eventPublisher.publishEvent(RecipeChangedEvent.created(saved)));
+        }
+
+        synchronized (job) {
+            for (int i = 0; i < batch.size(); i++) {
+                int index = batch.get(i);
+                String url = job.items[index].getUrl();
+                if (savedRecipes != null) {
+                    job.items[index] = new UrlImportJob.Item(url, "saved", savedRecipes.get(i).getId(), null);
+                    job.saved++;
+                } else {
+                    job.items[index] = new UrlImportJob.Item(url, "failed", null, error);
+                    job.failed++;
+                }
+                job.extracted[index] = null;
+            }
+            pendingUrls.addAndGet(-batch.size());
+            changed(job);
+        }
+    }
+
+    private void update(Job job, int index, UrlImportJob.Item item) {
+        synchronized (job) {
+            job.items[index] = item;
+            changed(job);
+        }
+    }
+
+    /** Must hold the job's lock. */
+    private void changed(Job job) {
+        job.dirty = true;
+        if (job.done() && job.finishedAt == null) {
+            job.finishedAt = LocalDateTime.now();
+            logger.info("URL import job {} done: {} saved, {} failed", job.id, job.saved, job.failed);
+        }
+    }
+
+    /**
+     * Writes the jobs running here that changed since they were last written, and renews
+     * aliveUntil of those that did not change for half of stale-after, in one bulk write.
+     * Finished jobs are dropped from memory once their final state is written.
+     */
+    @Scheduled(fixedDelayString = "${recipes.url-import.progress-interval:1s}")
+    public void writeProgress() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime renewBefore = now.minus(staleAfter.dividedBy(2));
+        List<Job> written = new ArrayList<>();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, UrlImportJob.class);
+        for (Job job : activeJobs.values()) {
+            synchronized (job) {
+                if (!job.dirty && job.writtenAt.isAfter(renewBefore)) {
+                    continue;
+                }
+                bulk.updateOne(Query.query(Criteria.where("id").is(job.id)), progress(toDocument(job, now)));
+                job.dirty = false;
+                job.writtenAt = now;
+            }
+            written.add(job);
+        }
+        if (written.isEmpty()) {
+            return;
+        }
+        Set<Integer> failed = new HashSet<>();
+        try {
+            bulk.execute();
+        } catch (BulkOperationException e) {
+            e.getErrors().forEach(error -> failed.add(error.getIndex()));
+            logger.warn("Failed to write the progress of {} of {} URL import jobs; retrying", failed.size(), written.size());
+        } catch (RuntimeException e) {
+            for (int i = 0; i < written.size(); i++) {
+                failed.add(i);
+            }
+            logger.error("Failed to write the progress of {} URL import jobs; retrying", written.size(), e);
+        }
+        for (int i = 0; i < written.size(); i++) {
+            Job job = written.get(i);
+            synchronized (job) {
+                if (failed.contains(i)) {
+                    job.dirty = true;
+                } else if (!job.dirty && (job.done() || job.interrupted)) {
+                    activeJobs.remove(job.id);
+                }
+            }
+        }
+    }
+
+    /** Sends every follower on this instance the state of its job, if it changed, with one query for all of them. */
+    @Scheduled(fixedDelayString = "${recipes.url-import.progress-interval:1s}")
+    public void pushProgress() {
+        if (followers.isEmpty()) {
+            return;
+        }
+        Set<String> jobIds = new HashSet<>();
+        followers.values().forEach(follower -> jobIds.add(follower.jobId));
+        Map<String, UrlImportJob> jobs = new HashMap<>();
+        try {
+            mongoTemplate.find(Query.query(Criteria.where("id").in(jobIds)), UrlImportJob.class)
+                    .forEach(job -> jobs.put(job.getId(), job));
+        } catch (RuntimeException e) {
+            logger.warn("Failed to read URL import jobs for {} followers; retrying", followers.size(), e);
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        followers.forEach((emitter, follower) -> {
+            UrlImportJob job = jobs.get(follower.jobId);
+            if (job == null) {
+                // Expired meanwhile
+                followers.remove(emitter);
+                emitter.complete();
+                return;
+            }
+            UrlImportJobDto state = toDto(job, now);
+            if (job.getVersion() == follower.sentVersion && state.status().equals(follower.sentStatus)) {
+                return;
+            }
+            follower.sentVersion = job.getVersion();
+            follower.sentStatus = state.status();
+            if (!send(emitter, state) || !RUNNING.equals(state.status())) {
+                followers.remove(emitter);
+            }
+        });
+    }
+
+    /** Must hold the job's lock. */
+    private UrlImportJob toDocument(Job job, LocalDateTime now) {
+        UrlImportJob document = new UrlImportJob();
+        document.setId(job.id);
+        document.setUserId(job.userId);
+        document.setStatus(job.status());
+        document.setTotal(job.items.length);
+        document.setSaved(job.saved);
+        document.setFailed(job.failed);
+        document.setItems(List.of(job.items));
+        document.setCreationDate(job.creationDate);
+        document.setFinishedAt(job.finishedAt);
+        document.setAliveUntil(now.plus(staleAfter));
+        document.setExpireAt(job.finishedAt != null ? job.finishedAt.plus(jobRetention) : now.plus(staleAfter).plus(jobRetention));
+        return document;
+    }
+
+    private static Update progress(UrlImportJob document) {
+        return new Update()
+                .set("status", document.getStatus())
+                .set("saved", document.getSaved())
+                .set("failed", document.getFailed())
+                .set("items", document.getItems())
+                .set("finishedAt", document.getFinishedAt())
+                .set("aliveUntil", document.getAliveUntil())
+                .set("expireAt", document.getExpireAt())
+                .inc("version", 1);
+    }
+
+    /** A running job whose instance stopped renewing aliveUntil is reported as interrupted. */
+    private static UrlImportJobDto toDto(UrlImportJob job, LocalDateTime now) {
+        String status = RUNNING.equals(job.getStatus()) && job.getAliveUntil().isBefore(now) ? INTERRUPTED : job.getStatus();
+        List<UrlImportJobDto.Item> items = new ArrayList<>(job.getItems().size());
+        for (UrlImportJob.Item item : job.getItems()) {
+            items.add(new UrlImportJobDto.Item(item.getUrl(), item.getStatus(), item.getRecipeId(), item.getError()));
+        }
+        return new UrlImportJobDto(job.getId(), status, job.getTotal(), job.getSaved(), job.getFailed(),
+                job.getCreationDate(), items);
+    }
+
+    /** @return False if the stream is gone or was completed because the job ended. */
+    private static boolean send(SseEmitter emitter, UrlImportJobDto state) {
+        try {
+            emitter.send(SseEmitter.event().name("job").data(state));
+            if (!RUNNING.equals(state.status())) {
+                emitter.complete();
+                return false;
+            }
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // The client went away or the emitter already completed
+            return false;
+        }
+    }
+
+    private static String hostOf(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host == null ? null : host.toLowerCase(Locale.ROOT);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /** Stops scraping and records the jobs still running here as interrupted. */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        for (Job job : activeJobs.values()) {
+            synchronized (job) {
+                if (!job.done()) {
+                    job.interrupted = true;
+                    job.dirty = true;
+                    logger.warn("URL import job {} interrupted by shutdown: {} saved, {} failed of {}",
+                            job.id, job.saved, job.failed, job.items.length);
+                }
+            }
+        }
+        writeProgress();
+    }
+}
@@ -0,0 +1,200 @@
+package backend.recimeclone.service;
+
+import backend.recimeclone.dtos.RecipePatchDto;
+import backend.recimeclone.dtos.RecipeRequestDto;
+import backend.recimeclone.models.ParsedIngredient;
+import backend.recimeclone.models.Recipe;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.LiteralOperators;
+import org.springframework.data.mongodb.core.aggregation.SetOperation;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Owner-checked single-recipe writes, each done in one database round trip.
+ * <p>
+ * The ownership check is part of the write itself ({@code {_id, userId}} criteria), and only
+ * the changed fields are sent as {@code $set}, so concurrent edits to other fields are not
+ * overwritten. Only when nothing matched is a second, cheap query made to tell 404 from 403.
+ * Soft-deleted recipes count as missing.
+ */
+@Service
+@RequiredArgsConstructor
+public class RecipeWriteService {
+
+    private final MongoTemplate mongoTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Outcome of a write.
+     * @param status 200 or 204 on success, otherwise 404 or 403.
+     * @param recipe The recipe after the write, or null if nothing was written or it was deleted.
+     */
+    public record Result(HttpStatus status, Recipe recipe) {
+        public boolean succeeded() {
+            return status.is2xxSuccessful();
+        }
+    }
+
+    /** Replaces every client-editable field (PUT semantics). */
+    public Result update(String id, String userId, RecipeRequestDto request) {
+        Recipe changes = new Recipe();
+        request.applyTo(changes);
+        changes.setUpdateDate(LocalDateTime.now());
+        RecipeDerivedFields.applyTo(changes);
+        return modify(id, userId, editableFields(changes), recipe -> {
+            request.applyTo(recipe);
+            recipe.setUpdateDate(changes.getUpdateDate());
+            RecipeDerivedFields.applyTo(recipe);
+        });
+    }
+
+    /**
+     * Changes only the fields present in the patch (PATCH semantics). Derived fields that only
+     * depend on patched fields are computed here; totalTime depends on both times, so when only
+     * one of them is patched it is recomputed by the database from the stored values, in the
+     * same update.
+     */
+    public Result patch(String id, String userId, RecipePatchDto patch) {
+        LocalDateTime now = LocalDateTime.now();
+        Update update = new Update().set("updateDate", now).inc("version", 1);
+        patch.addTo(update);
+        if (patch.title() != null) {
+            update.set("sortTitle", RecipeDerivedFields.sortTitle(patch.title()));
+        }
+        if (patch.ingredients() != null) {
+            List<ParsedIngredient> parsed = RecipeIngredientParser.parseAll(patch.ingredients());
+            update.set("parsedIngredients", parsed)
+                    .set("ingredientNames", RecipeIngredientParser.indexNames(parsed))
+                    .set("ingredientCount", patch.ingredients().size());
+        }
+        UpdateDefinition definition = patch.prepTime() != null || patch.cookTime() != null
+                ? withTotalTime(update)
+                : update;
+        return modify(id, userId, definition, recipe -> {
+            patch.applyTo(recipe);
+            recipe.setUpdateDate(now);
+            RecipeDerivedFields.applyTo(recipe);
+        });
+    }
+
+    /**
+     * The same $set as a pipeline update, followed by a stage computing totalTime from the
+     * document's times after the first stage, which also increments the version. Values are converted the way the mapping layer
+     * would, and wrapped in $literal so strings starting with '$' are not read as field paths.
+     */
+    private AggregationUpdate withTotalTime(Update update) {
+        MongoConverter converter = mongoTemplate.getConverter();
+        SetOperation set = null;
+        for (Map.Entry<String, Object> field : update.getUpdateObject().get("$set", Document.class).entrySet()) {
+            Object value = LiteralOperators.valueOf(converter.convertToMongoType(field.getValue())).asLiteral();
+            set = set == null ? new SetOperation(field.getKey(), value) : set.set(field.getKey(), value);
+        }
+        return AggregationUpdate.update()
+                .set(set)
+                .set(SetOperation.set("totalTime").toValue(ArithmeticOperators.Add.valueOf("prepTime").add("cookTime"))
+                        .and().set("version").toValue(nextVersion()));
+    }
+
+    /**
+     * Soft delete: stamps deletionDate (and updateDate, so delta sync picks up the tombstone).
+     * The document is physically removed later by {@link RecipePurgeService}.
+     */
+    public Result delete(String id, String userId) {
+        Update update = softDelete(LocalDateTime.now());
+        Recipe deleted = mongoTemplate.findAndModify(ownedBy(id, userId), update,
+                FindAndModifyOptions.options().returnNew(false), Recipe.class);
+        if (deleted == null) {
+            return new Result(missStatus(id), null);
+        }
+        eventPublisher.publishEvent(RecipeChangedEvent.deleted(deleted));
+        return new Result(HttpStatus.NO_CONTENT, null);
+    }
+
+    /**
+     * Runs one findAndModify that returns the document as it was before, then derives the new
+     * state by applying the same changes in memory, so both sides of the change are known
+     * without a second read.
+     */
+    private Result modify(String id, String userId, UpdateDefinition update, Consumer<Recipe> applyInMemory) {
+        Recipe previous = mongoTemplate.findAndModify(ownedBy(id, userId), update,
+                FindAndModifyOptions.options().returnNew(false), Recipe.class);
+        if (previous == null) {
+            return new Result(missStatus(id), null);
+        }
+        Recipe current = previous.toBuilder().build();
+        applyInMemory.accept(current);
+        current.setVersion(previous.getVersion() + 1);
+        eventPublisher.publishEvent(RecipeChangedEvent.updated(previous, current));
+        return new Result(HttpStatus.OK, current);
+    }
+
+    /** Only called when an owner-checked write matched nothing. */
+    private HttpStatus missStatus(String id) {
+        return mongoTemplate.exists(Query.query(Criteria.where("id").is(id).and("deletionDate").is(null)), Recipe.class)
+                ? HttpStatus.FORBIDDEN
+                : HttpStatus.NOT_FOUND;
+    }
+
+    /** Criteria that only match the recipe while it is live and still belongs to the user. */
+    static Query ownedBy(String id, String userId) {
+        return Query.query(Criteria.where("id").is(id).and("userId").is(userId).and("deletionDate").is(null));
+    }
+
+    /** Unsetting totalTime also drops the tombstone from the partial browse indexes. */
+    static Update softDelete(LocalDateTime now) {
+        return new Update().set("deletionDate", now).set("updateDate", now).unset("totalTime").inc("version", 1);
+    }
+
+    /**
+     * {@code version + 1}, for pipeline updates, which have no $inc. Every write to a recipe
+     * increments its version (see {@link backend.recimeclone.dtos.RecipeVersionDto}).
+     */
+    static AggregationExpression nextVersion() {
+        return context -> new Document("$add", List.of(new Document("$ifNull", List.of("$version", 0L)), 1L));
+    }
+
+    /**
+     * $set of every field a client may edit, plus updateDate and the derived fields.
+     * The recipe must have been through {@link RecipeDerivedFields#applyTo(Recipe)}.
+     */
+    static Update editableFields(Recipe recipe) {
+        return new Update()
+                .set("title", recipe.getTitle())
+                .set("description", recipe.getDescription())
+                .set("servings", recipe.getServings())
+                .set("imageUrl", recipe.getImageUrl())
+                .set("ingredients", recipe.getIngredients())
+                .set("methods", recipe.getMethods())
+                .set("prepTime", recipe.getPrepTime())
+                .set("cookTime", recipe.getCookTime())
+                .set("tags", recipe.getTags())
+                .set("categories", recipe.getCategories())
+                .set("notes", recipe.getNotes())
+                .set("rating", recipe.getRating())
+                .set("parsedIngredients", recipe.getParsedIngredients())
+                .set("ingredientNames", recipe.getIngredientNames())
+                .set("totalTime", recipe.getTotalTime())
+                .set("ingredientCount", recipe.getIngredientCount())
+                .set("sortTitle", recipe.getSortTitle())
+                .set("updateDate", recipe.getUpdateDate())
+                .inc("version", 1);
+    }
+}
@@ -0,0 +1,35 @@
+package backend.recimeclone.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The host tag of the scraper's metrics. The first recipes.scraper.max-metric-hosts distinct
+ * hosts are tagged by name and any further ones as "other", so the number of time series stays
+ * bounded however many sites are scraped.
+ */
+@Component
+public class ScraperHostTags {
+
+    private final int maxHosts;
+    private final Set<String> hosts = ConcurrentHashMap.newKeySet();
+
+    public ScraperHostTags(@Value("${recipes.scraper.max-metric-hosts:200}") int maxHosts) {
+        this.maxHosts = maxHosts;
+    }
+
+    public String tag(String host) {
+        if (host == null) {
+            return "unknown";
+        }
+        String tag = host.toLowerCase(Locale.ROOT);
+        if (hosts.contains(tag) || (hosts.size() < maxHosts && hosts.add(tag))) {
+            return tag;
+        }
+        return "other";
+    }
+}
@@ -0,0 +1,61 @@
+package backend.recimeclone.service;
+
+import backend.recimeclone.configs.ScraperProfileProperties;
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.QueryParser;
+import org.jsoup.select.Selector;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * CSS selectors for the fields of a recipe, compiled once into Jsoup {@link Evaluator}s so a page
+ * is matched without parsing the selector strings again. A null evaluator means the field is not
+ * extracted.
+ */
+record SelectorProfile(String name, List<String> hosts, Evaluator title, Evaluator description,
+                       Evaluator ingredients, Evaluator instructions, Evaluator cookTime,
+                       Evaluator prepTime, Evaluator servings) {
+
+    /** The selectors for common recipe markup, used for any site. */
+    static final SelectorProfile GENERIC = new SelectorProfile("html", List.of(),
+            QueryParser.parse("h1, .recipe-title, .entry-title, [itemprop=name]"),
+            QueryParser.parse(".recipe-description, .recipe-summary, [itemprop=description]"),
+            QueryParser.parse(".recipe-ingredient, .ingredient, [itemprop=recipeIngredient], .recipe-ingredients li"),
+            QueryParser.parse(".recipe-instruction, .instruction, [itemprop=recipeInstructions], .recipe-instructions li, .recipe-method li"),
+            QueryParser.parse("[itemprop=cookTime], .cook-time, .cooking-time"),
+            QueryParser.parse("[itemprop=prepTime], .prep-time, .preparation-time"),
+            null);
+
+    /**
+     * Compiles a configured profile.
+     * @throws IllegalStateException If a selector is not valid CSS.
+     */
+    static SelectorProfile compile(String name, ScraperProfileProperties.Profile profile) {
+        List<String> hosts = profile.getHosts().stream().map(host -> host.trim().toLowerCase(Locale.ROOT)).toList();
+        return new SelectorProfile("profile:" + name, hosts,
+                compile(name, "title", profile.getTitle()),
+                compile(name, "description", profile.getDescription()),
+                compile(name, "ingredients", profile.getIngredients()),
+                compile(name, "instructions", profile.getInstructions()),
+                compile(name, "cook-time", profile.getCookTime()),
+                compile(name, "prep-time", profile.getPrepTime()),
+                compile(name, "servings", profile.getServings()));
+    }
+
+    private static Evaluator compile(String profile, String field, String selector) {
+        if (selector == null || selector.isBlank()) {
+            return null;
+        }
+        try {
+            return QueryParser.parse(selector);
+        } catch (Selector.SelectorParseException e) {
+            throw new IllegalStateException("Invalid selector in recipes.scraper.profiles." + profile + "." + field + ": " + e.getMessage(), e);
+        }
+    }
+
+    /** True if the host is one of the profile's hosts or a subdomain of one. */
+    boolean appliesTo(String host) {
+        return hosts.stream().anyMatch(h -> host.equals(h) || host.endsWith("." + h));
+    }
+}
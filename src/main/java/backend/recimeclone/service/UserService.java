@@ -1,17 +1,65 @@
 package backend.recimeclone.service;
 
+import backend.recimeclone.dtos.AuthorDto;
 import backend.recimeclone.models.UserModel;
 import backend.recimeclone.repos.AuthRepo;
+import org.bson.Document;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 @Service
 public class UserService {
 
     @Autowired
     private AuthRepo authRepo;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
     public UserModel getUser(String id) {
         return authRepo.findById(id).orElse(null);
     }
+
+    /**
+     * Resolves many recipe owners with one query that reads only public fields.
+     * Recipes store their owner's login name (the email) as userId; ids are accepted too.
+     * @param userIds Owner references as stored in Recipe.userId.
+     * @return The authors found, keyed by the reference they were requested with.
+     */
+    public Map<String, AuthorDto> findAuthors(Collection<String> userIds) {
+        if (userIds.isEmpty()) {
+            return Map.of();
+        }
+        List<ObjectId> ids = new ArrayList<>();
+        for (String userId : userIds) {
+            if (ObjectId.isValid(userId)) {
+                ids.add(new ObjectId(userId));
+            }
+        }
+        Criteria byEmail = Criteria.where("email").in(userIds);
+        Query query = new Query(ids.isEmpty() ? byEmail : new Criteria().orOperator(byEmail, Criteria.where("_id").in(ids)));
+        // Read as raw documents: UserModel.getUsername() returns the email, and nothing private is loaded
+        query.fields().include("_id", "email", "username", "user_profile_url");
+
+        Map<String, AuthorDto> authors = new HashMap<>();
+        for (Document user : mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(UserModel.class))) {
+            String id = user.get("_id").toString();
+            AuthorDto author = new AuthorDto(id, user.getString("username"), user.getString("user_profile_url"));
+            authors.put(id, author);
+            if (user.getString("email") != null) {
+                authors.put(user.getString("email"), author);
+            }
+        }
+        return authors;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,51 @@
+package backend.recimeclone.dtos;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RecipeBrowseCursorTest {
+
+    private static String token(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void roundTrips() {
+        RecipeBrowseCursor cursor = new RecipeBrowseCursor("totalTime", "45", new ObjectId());
+
+        String token = cursor.encode();
+
+        assertThat(token).matches("[A-Za-z0-9_-]+");
+        assertThat(RecipeBrowseCursor.decode(token)).isEqualTo(cursor);
+    }
+
+    @Test
+    void roundTripsValueContainingSeparators() {
+        RecipeBrowseCursor cursor = new RecipeBrowseCursor("title", "Fish | Chips || Peas ½", new ObjectId());
+
+        assertThat(RecipeBrowseCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void roundTripsEmptyAndNullValues() {
+        ObjectId id = new ObjectId();
+
+        assertThat(RecipeBrowseCursor.decode(new RecipeBrowseCursor("title", "", id).encode()).value()).isEmpty();
+        assertThat(RecipeBrowseCursor.decode(new RecipeBrowseCursor("totalTime", null, id).encode()).value()).isEqualTo("null");
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        assertThatThrownBy(() -> RecipeBrowseCursor.decode("not base64!")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RecipeBrowseCursor.decode(token("title"))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RecipeBrowseCursor.decode(token("title|" + new ObjectId().toHexString())))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RecipeBrowseCursor.decode(token("title|Pie|nope"))).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,45 @@
+package backend.recimeclone.dtos;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RecipeCursorTest {
+
+    private static String token(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void roundTrips() {
+        RecipeCursor cursor = new RecipeCursor(LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123_000_000), new ObjectId());
+
+        String token = cursor.encode();
+
+        assertThat(token).matches("[A-Za-z0-9_-]+");
+        assertThat(RecipeCursor.decode(token)).isEqualTo(cursor);
+    }
+
+    @Test
+    void roundTripsWholeSeconds() {
+        // LocalDateTime.toString() omits zero seconds, which parse() must still accept
+        RecipeCursor cursor = new RecipeCursor(LocalDateTime.of(2024, 3, 1, 12, 30), new ObjectId());
+
+        assertThat(RecipeCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        assertThatThrownBy(() -> RecipeCursor.decode("not base64!")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RecipeCursor.decode(token("2024-03-01T12:30"))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RecipeCursor.decode(token("yesterday|" + new ObjectId().toHexString())))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RecipeCursor.decode(token("2024-03-01T12:30|nope"))).isInstanceOf(IllegalArgumentException.class);
+    }
+}
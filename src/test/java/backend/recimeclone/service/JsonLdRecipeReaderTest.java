@@ -0,0 +1,119 @@
+package backend.recimeclone.service;
+
+import backend.recimeclone.models.Recipe;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JsonLdRecipeReaderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JsonLdRecipeReader reader = new JsonLdRecipeReader(objectMapper);
+
+    private JsonNode firstRecipe(String html) throws IOException {
+        return reader.firstRecipe(new StringReader(html));
+    }
+
+    private static String script(String json) {
+        return "<script type=\"application/ld+json\">" + json + "</script>";
+    }
+
+    @Test
+    void readsRecipeFromPage() throws IOException {
+        JsonNode recipe = firstRecipe("<html><head>"
+                + script("{\"@type\": \"Recipe\", \"name\": \"Pancakes\"}")
+                + "</head><body></body></html>");
+
+        assertThat(recipe).isNotNull();
+        assertThat(recipe.path("name").asText()).isEqualTo("Pancakes");
+    }
+
+    @Test
+    void readsScriptSplitAcrossBufferBoundaries() throws IOException {
+        // Larger than the reader's 8192-character buffer on both sides of the script tag
+        String padding = "<p>" + "x".repeat(10_000) + "</p>";
+        String longText = "y".repeat(20_000);
+        JsonNode recipe = firstRecipe(padding
+                + script("{\"@type\": \"Recipe\", \"description\": \"" + longText + "\", \"name\": \"Long\"}")
+                + padding);
+
+        assertThat(recipe).isNotNull();
+        assertThat(recipe.path("name").asText()).isEqualTo("Long");
+        assertThat(recipe.path("description").asText()).hasSize(20_000);
+    }
+
+    @Test
+    void endsScriptAtUpperCaseCloseTagWithSpace() throws IOException {
+        JsonNode recipe = firstRecipe("<SCRIPT TYPE='application/ld+json'>{\"@type\": \"Recipe\", \"name\": \"Soup\"}</SCRIPT >"
+                + script("{\"@type\": \"Recipe\", \"name\": \"Other\"}"));
+
+        assertThat(recipe.path("name").asText()).isEqualTo("Soup");
+    }
+
+    @Test
+    void skipsJsonLdInsideComment() throws IOException {
+        JsonNode recipe = firstRecipe("<!-- " + script("{\"@type\": \"Recipe\", \"name\": \"Hidden\"}") + " -->"
+                + script("{\"@type\": \"Recipe\", \"name\": \"Visible\"}"));
+
+        assertThat(recipe.path("name").asText()).isEqualTo("Visible");
+    }
+
+    @Test
+    void skipsMalformedBlockAndReadsNextOne() throws IOException {
+        JsonNode recipe = firstRecipe(script("{\"@type\": \"Recipe\", \"name\": \"Broken\",,}")
+                + script("{\"@type\": \"Recipe\", \"name\": \"Valid\"}"));
+
+        assertThat(recipe.path("name").asText()).isEqualTo("Valid");
+    }
+
+    @Test
+    void skipsOtherScriptsContainingJsonLdMarkup() throws IOException {
+        JsonNode recipe = firstRecipe("<script>var s = '" + script("{\"@type\": \"Recipe\", \"name\": \"Inline\"}")
+                + script("{\"@type\": \"Recipe\", \"name\": \"Real\"}"));
+
+        // The plain script ends at the first </script>, inside its string literal
+        assertThat(recipe.path("name").asText()).isEqualTo("Real");
+    }
+
+    @Test
+    void findsRecipeInGraphAndArrayTypes() throws IOException {
+        JsonNode recipe = firstRecipe(script("{\"@context\": \"https://schema.org\", \"@graph\": ["
+                + "{\"@type\": \"WebPage\", \"name\": \"Page\"},"
+                + "{\"@type\": [\"Recipe\", \"NewsArticle\"], \"name\": \"Stew\"}]}"));
+
+        assertThat(recipe.path("name").asText()).isEqualTo("Stew");
+    }
+
+    @Test
+    void skipsRecipeWithoutName() throws IOException {
+        JsonNode recipe = firstRecipe(script("[{\"@type\": \"Recipe\", \"name\": \" \"}, {\"@type\": \"Recipe\", \"name\": \"Named\"}]"));
+
+        assertThat(recipe.path("name").asText()).isEqualTo("Named");
+    }
+
+    @Test
+    void returnsNullWithoutRecipe() throws IOException {
+        assertThat(firstRecipe("<html>" + script("{\"@type\": \"Organization\", \"name\": \"Site\"}") + "</html>")).isNull();
+        assertThat(firstRecipe("<script type=\"application/ld+json\">{\"@type\": \"Recipe\", \"name\"")).isNull();
+    }
+
+    @Test
+    void flattensNestedHowToSections() throws IOException {
+        JsonNode node = objectMapper.readTree("{\"@type\": \"Recipe\", \"name\": \"Layered\", \"recipeInstructions\": ["
+                + "{\"@type\": \"HowToSection\", \"name\": \"Base\", \"itemListElement\": ["
+                + "{\"@type\": \"HowToStep\", \"text\": \" Mix. \"},"
+                + "{\"@type\": \"HowToSection\", \"itemListElement\": [{\"@type\": \"HowToStep\", \"text\": \"Rest.\"}]}]},"
+                + "\"Bake.\","
+                + "{\"@type\": \"HowToStep\", \"text\": \"\"}]}");
+
+        Recipe recipe = new RecipeScraperService(null, null, null).extractRecipeFromJsonNode(node);
+
+        assertThat(recipe.getTitle()).isEqualTo("Layered");
+        assertThat(recipe.getMethods()).containsExactly("Mix.", "Rest.", "Bake.");
+    }
+}
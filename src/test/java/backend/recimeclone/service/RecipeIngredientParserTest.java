@@ -0,0 +1,106 @@
+package backend.recimeclone.service;
+
+import backend.recimeclone.models.ParsedIngredient;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class RecipeIngredientParserTest {
+
+    private static void assertParsed(String line, Double quantity, String unit, String name) {
+        ParsedIngredient parsed = RecipeIngredientParser.parse(line);
+        if (quantity == null) {
+            assertThat(parsed.getQuantity()).as(line).isNull();
+        } else {
+            assertThat(parsed.getQuantity()).as(line).isCloseTo(quantity, within(1e-9));
+        }
+        assertThat(parsed.getUnit()).as(line).isEqualTo(unit);
+        assertThat(parsed.getName()).as(line).isEqualTo(name);
+    }
+
+    @Test
+    void parsesAmountsAndUnits() {
+        assertParsed("500g chicken breast", 500.0, "g", "chicken breast");
+        assertParsed("1.5 kg potatoes", 1.5, "kg", "potato");
+        assertParsed("2,5 Tbsp. olive oil", 2.5, "tbsp", "olive oil");
+        assertParsed("3 cloves garlic, minced", 3.0, "clove", "garlic");
+        assertParsed("2 eggs", 2.0, null, "egg");
+    }
+
+    @Test
+    void parsesFractions() {
+        assertParsed("1 1/2 cups plain flour, sifted", 1.5, "cup", "plain flour");
+        assertParsed("1/2 tsp salt", 0.5, "tsp", "salt");
+        assertParsed("½ tsp salt", 0.5, "tsp", "salt");
+        assertParsed("1½ cups milk", 1.5, "cup", "milk");
+        assertParsed("⅓ cup sugar", 1.0 / 3, "cup", "sugar");
+    }
+
+    @Test
+    void keepsLowerBoundOfRanges() {
+        assertParsed("2-3 large onions", 2.0, null, "onion");
+        assertParsed("2 – 3 carrots", 2.0, null, "carrot");
+        assertParsed("2 to 3 tomatoes", 2.0, null, "tomato");
+    }
+
+    @Test
+    void handlesLineEndingAfterRangeWord() {
+        assertParsed("2 to  ", 2.0, null, "to");
+        assertParsed("2 to \t", 2.0, null, "to");
+        assertParsed("2 - ", 2.0, null, null);
+    }
+
+    @Test
+    void skipsPackageSize() {
+        assertParsed("1 (14 oz) can diced tomatoes", 1.0, "can", "tomato");
+    }
+
+    @Test
+    void readsArticleAsOne() {
+        assertParsed("a pinch of salt", 1.0, "pinch", "salt");
+        assertParsed("An onion", 1.0, null, "onion");
+    }
+
+    @Test
+    void dropsTrailersAndDescriptors() {
+        assertParsed("Salt and pepper to taste", null, null, "salt and pepper");
+        assertParsed("Freshly chopped parsley for garnish", null, null, "parsley");
+        assertParsed("2 boneless skinless chicken thighs (about 300g)", 2.0, null, "chicken thigh");
+    }
+
+    @Test
+    void bareSingleLetterIsOnlyUnitAfterAmount() {
+        assertParsed("1 l water", 1.0, "l", "water");
+        assertParsed("g flour", null, null, "g flour");
+    }
+
+    @Test
+    void handlesMissingName() {
+        assertParsed("2 cups", 2.0, "cup", null);
+        assertParsed(null, null, null, null);
+        assertThat(RecipeIngredientParser.parseAll(null)).isEmpty();
+    }
+
+    @Test
+    void normalizesUserNamesLikeParsedNames() {
+        assertThat(RecipeIngredientParser.normalizeName("Cherry Tomatoes")).isEqualTo("cherry tomato");
+        assertThat(RecipeIngredientParser.normalizeName("berries")).isEqualTo("berry");
+    }
+
+    @Test
+    void indexesFullNamesAndLongerWords() {
+        List<ParsedIngredient> parsed = RecipeIngredientParser.parseAll(
+                Arrays.asList("500g chicken breast", "salt and pepper", "2 eggs", "1 egg", "2 cups", "1 red bell pepper", "2 oz ox tail"));
+
+        assertThat(RecipeIngredientParser.indexNames(parsed)).containsExactly(
+                "chicken breast", "chicken", "breast",
+                "salt and pepper", "salt", "pepper",
+                "egg",
+                "red bell pepper", "red", "bell",
+                "ox tail", "tail");
+    }
+}